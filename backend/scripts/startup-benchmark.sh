@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Reports time-to-first-request (process start until GET /health answers) for each startup mode.
+#
+#   ./mvnw -Pfast-start package -DskipTests
+#   MYSQL_URL=... MYSQL_USER=... MYSQL_PASSWORD=... scripts/startup-benchmark.sh [runs]
+#
+# The crac mode only runs on a CRaC-enabled JDK (e.g. Azul Zulu with CRaC).
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+JAR=$(ls target/*.jar | grep -v plain | head -n 1)
+WORK=target/startup-benchmark
+FAST=(-Dspring.profiles.active=fast-start)
+AOT=(-Dspring.aot.enabled=true)
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+
+measure() {
+    local name=$1; shift
+    local total=0
+    for _ in $(seq "$RUNS"); do
+        local start end pid
+        start=$(date +%s%N)
+        PORT=$PORT "$@" > "$WORK/$name.log" 2>&1 &
+        pid=$!
+        until curl -sf "http://localhost:$PORT/health" > /dev/null; do
+            if ! kill -0 "$pid" 2> /dev/null; then
+                echo "$name: application exited, see $WORK/$name.log"
+                return
+            fi
+            sleep 0.01
+        done
+        end=$(date +%s%N)
+        kill "$pid" && wait "$pid" 2> /dev/null || true
+        total=$(( total + (end - start) / 1000000 ))
+    done
+    printf "%-28s %6d ms (avg of %d)\n" "$name" $(( total / RUNS )) "$RUNS"
+}
+
+measure default            java -jar "$JAR"
+measure fast-start         java "${FAST[@]}" -jar "$JAR"
+measure fast-start+aot     java "${FAST[@]}" "${AOT[@]}" -jar "$JAR"
+
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/extracted" --application-filename app.jar > /dev/null
+(cd "$WORK/extracted" && java -XX:ArchiveClassesAtExit=app.jsa "${FAST[@]}" "${AOT[@]}" \
+    -Dspring.context.exit=onRefresh -jar app.jar > ../cds-training.log 2>&1)
+measure fast-start+aot+cds java -XX:SharedArchiveFile="$WORK/extracted/app.jsa" "${FAST[@]}" "${AOT[@]}" \
+    -jar "$WORK/extracted/app.jar"
+
+if java -XX:CRaCCheckpointTo=/dev/null -version > /dev/null 2>&1; then
+    # the checkpoint is taken once the context is refreshed, restoring skips startup entirely
+    PORT=$PORT java -XX:CRaCCheckpointTo="$WORK/crac" "${FAST[@]}" "${AOT[@]}" \
+        -Dspring.context.checkpoint=onRefresh -jar "$JAR" > "$WORK/crac-checkpoint.log" 2>&1 || true
+    measure crac-restore java -XX:CRaCRestoreFrom="$WORK/crac"
+else
+    echo "crac-restore                 skipped (JDK without CRaC support)"
+fi
@@ -0,0 +1,22 @@
+package org.devbulchandani.backend.cluster;
+
+/**
+ * Tells every replica that cached state derived from one entity is stale.
+ */
+public record Invalidation(Kind kind, long id) {
+
+    public enum Kind {
+        PLAN,
+        // no longer published, a milestone change invalidates its plan; kept so rows written
+        // by older replicas still decode
+        MILESTONE
+    }
+
+    public static Invalidation plan(long planId) {
+        return new Invalidation(Kind.PLAN, planId);
+    }
+
+    public static Invalidation milestone(long milestoneId) {
+        return new Invalidation(Kind.MILESTONE, milestoneId);
+    }
+}
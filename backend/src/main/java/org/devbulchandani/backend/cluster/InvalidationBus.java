@@ -0,0 +1,80 @@
+package org.devbulchandani.backend.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fans out cache invalidations to in-process subscribers and, through the configured
+ * {@link InvalidationTransport}, to every other replica. Published inside a transaction, the
+ * invalidation goes out after commit, so no replica reloads the old state.
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final InvalidationTransport transport;
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    public InvalidationBus(InvalidationTransport transport) {
+        this.transport = transport;
+    }
+
+    public void subscribe(Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void publish(Invalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(invalidation);
+                }
+            });
+        } else {
+            send(invalidation);
+        }
+    }
+
+    // started with the other lifecycle beans, after the context (and Flyway) is up
+    @Override
+    public void start() {
+        transport.start(this::deliver);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        transport.stop();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void send(Invalidation invalidation) {
+        deliver(invalidation);
+        try {
+            transport.publish(invalidation);
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    private void deliver(Invalidation invalidation) {
+        for (Consumer<Invalidation> subscriber : subscribers) {
+            subscriber.accept(invalidation);
+        }
+    }
+}
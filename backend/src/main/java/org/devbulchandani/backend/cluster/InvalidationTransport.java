@@ -0,0 +1,35 @@
+package org.devbulchandani.backend.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between replicas. Implementations deliver only what other instances
+ * published; the bus applies local invalidations itself.
+ */
+public interface InvalidationTransport {
+
+    void start(Consumer<Invalidation> receiver);
+
+    void publish(Invalidation invalidation);
+
+    void stop();
+
+    /**
+     * For single-instance runs: nothing leaves the process.
+     */
+    static InvalidationTransport localOnly() {
+        return new InvalidationTransport() {
+            @Override
+            public void start(Consumer<Invalidation> receiver) {
+            }
+
+            @Override
+            public void publish(Invalidation invalidation) {
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package org.devbulchandani.backend.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation log in the shared MySQL database. Publishing appends a row; every instance polls
+ * for rows past the last id it has seen and skips its own.
+ *
+ * <p>Auto-increment ids are assigned at insert but become visible at commit, so a lower id can
+ * show up after a higher one. The poller therefore only moves its watermark over a gap once the
+ * gap has stayed open for {@link #GAP_GRACE}; ids above the watermark are remembered so nothing
+ * is delivered twice.
+ */
+public class JdbcInvalidationTransport implements InvalidationTransport {
+    private static final Logger log = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+    private static final Duration GAP_GRACE = Duration.ofSeconds(5);
+    private static final int BATCH = 500;
+
+    private final JdbcTemplate jdbc;
+    private final String origin = UUID.randomUUID().toString();
+    private final Duration pollInterval;
+    private final Duration initialDelay;
+    private final Duration retention;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Consumer<Invalidation> receiver;
+    private long watermark;
+    private final TreeSet<Long> seenAboveWatermark = new TreeSet<>();
+    private long gapOpenSince;
+    private long lastPrune;
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    public JdbcInvalidationTransport(DataSource dataSource, Duration pollInterval, Duration retention) {
+        this(dataSource, pollInterval, retention, Duration.ZERO);
+    }
+
+    public JdbcInvalidationTransport(DataSource dataSource, Duration pollInterval, Duration retention, Duration initialDelay) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.initialDelay = initialDelay;
+    }
+
+    // the first task reads the current end of the log on the poller thread, so starting does no
+    // I/O; nothing is read before initialDelay has passed
+    @Override
+    public void start(Consumer<Invalidation> receiver) {
+        this.receiver = receiver;
+        long delayMs = initialDelay.toMillis();
+        poller.schedule(this::initWatermark, delayMs, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::pollSafely, delayMs + pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        jdbc.update("INSERT INTO cache_invalidations (origin, kind, entity_id, created_at) VALUES (?, ?, ?, NOW(6))",
+                origin, invalidation.kind().name(), invalidation.id());
+    }
+
+    @Override
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    boolean awaitReady(Duration timeout) throws InterruptedException {
+        return ready.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void initWatermark() {
+        try {
+            Long max = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+            watermark = max == null ? 0 : max;
+            lastPrune = System.nanoTime();
+            ready.countDown();
+        } catch (RuntimeException e) {
+            log.warn("Invalidation log not readable yet: {}", e.getMessage());
+        }
+    }
+
+    private void pollSafely() {
+        if (ready.getCount() > 0) {
+            initWatermark();
+            return;
+        }
+        try {
+            poll();
+            if (System.nanoTime() - lastPrune > retention.toNanos()) {
+                prune();
+                lastPrune = System.nanoTime();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    void poll() {
+        List<Row> rows = jdbc.query(
+                "SELECT id, origin, kind, entity_id FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT " + BATCH,
+                (rs, i) -> new Row(rs.getLong("id"), rs.getString("origin"), rs.getString("kind"), rs.getLong("entity_id")),
+                watermark);
+
+        for (Row row : rows) {
+            if (seenAboveWatermark.add(row.id) && !origin.equals(row.origin)) {
+                receiver.accept(new Invalidation(Invalidation.Kind.valueOf(row.kind), row.entityId));
+            }
+        }
+        advanceWatermark();
+    }
+
+    private void advanceWatermark() {
+        while (!seenAboveWatermark.isEmpty()) {
+            long next = seenAboveWatermark.first();
+            boolean contiguous = next == watermark + 1;
+            if (!contiguous) {
+                if (gapOpenSince == 0) {
+                    gapOpenSince = System.nanoTime();
+                    return;
+                }
+                if (System.nanoTime() - gapOpenSince < GAP_GRACE.toNanos()) {
+                    return;
+                }
+            }
+            watermark = next;
+            seenAboveWatermark.pollFirst();
+            gapOpenSince = 0;
+        }
+    }
+
+    private void prune() {
+        jdbc.update("DELETE FROM cache_invalidations WHERE created_at < NOW(6) - INTERVAL ? SECOND",
+                retention.toSeconds());
+    }
+
+    private record Row(long id, String origin, String kind, long entityId) {}
+}
@@ -0,0 +1,18 @@
+package org.devbulchandani.backend.config;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+public class EmbeddingConfiguration {
+
+    // loading the ONNX model takes seconds, so it happens on the first retrieval instead of at boot
+    @Bean
+    @Lazy
+    public EmbeddingModel embeddingModel() {
+        return new AllMiniLmL6V2QuantizedEmbeddingModel();
+    }
+}
@@ -3,15 +3,22 @@ package org.devbulchandani.backend.config;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.googleai.GeminiThinkingConfig;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import org.devbulchandani.backend.logging.LlmPayloadLogger;
+import org.devbulchandani.backend.tools.ParallelToolExecutor;
+import org.devbulchandani.backend.usage.UsageLedger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.List;
 
 @Configuration
 public class GeminiConfiguration {
 
     @Bean
-    public ChatModel gemini(){
+    @Lazy
+    public ChatModel gemini(UsageLedger usageLedger, LlmPayloadLogger llmPayloadLogger, ParallelToolExecutor toolCallExecutor){
         return GoogleAiGeminiChatModel.builder()
                 .apiKey(System.getenv("GEMINI_API_KEY"))
                 .modelName("gemini-3-pro-preview")
@@ -20,6 +27,7 @@ public class GeminiConfiguration {
                         .build())
                 .sendThinking(true)
                 .returnThinking(true)
+                .listeners(List.of(usageLedger, llmPayloadLogger, toolCallExecutor))
                 .build();
     }
 }
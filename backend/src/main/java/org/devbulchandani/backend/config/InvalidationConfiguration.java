@@ -0,0 +1,32 @@
+package org.devbulchandani.backend.config;
+
+import org.devbulchandani.backend.cluster.InvalidationTransport;
+import org.devbulchandani.backend.cluster.JdbcInvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class InvalidationConfiguration {
+
+    @Bean
+    @DependsOnDatabaseInitialization
+    public InvalidationTransport invalidationTransport(
+            @Value("${invalidation.transport}") String transport,
+            @Value("${invalidation.poll-interval-ms}") long pollIntervalMs,
+            @Value("${invalidation.retention-minutes}") long retentionMinutes,
+            @Value("${invalidation.initial-delay-ms}") long initialDelayMs,
+            DataSource dataSource) {
+        return switch (transport) {
+            case "jdbc" -> new JdbcInvalidationTransport(
+                    dataSource, Duration.ofMillis(pollIntervalMs), Duration.ofMinutes(retentionMinutes),
+                    Duration.ofMillis(initialDelayMs));
+            case "local" -> InvalidationTransport.localOnly();
+            default -> throw new IllegalStateException("Unknown invalidation.transport: " + transport);
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package org.devbulchandani.backend.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.devbulchandani.backend.dtos.JdbcStatementStatsDto;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every statement that goes through the application's {@link DataSource}, keyed by its
+ * SQL text. Hibernate statistics only see HQL/JPQL, this also covers the {@link
+ * org.springframework.jdbc.core.JdbcTemplate} statements (export, usage flush, invalidation
+ * polling) and native queries. Served next to the Hibernate numbers at /api/admin/sql-stats.
+ *
+ * <p>The DataSource is wrapped with datasource-proxy, which hands back its own connection from
+ * {@code Statement.getConnection()} and only calls this listener around the execute methods.
+ * Statements past {@code MAX_STATEMENTS} distinct texts are counted under one overflow key, so
+ * SQL built with inlined values cannot grow the map without bound.
+ */
+@Component
+public class JdbcStatementStats implements BeanPostProcessor, QueryExecutionListener {
+    static final int MAX_STATEMENTS = 500;
+    static final String OVERFLOW = "(other statements)";
+    static final String BATCH = "(statement batch)";
+
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+    private volatile long since = System.currentTimeMillis();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource) ? wrap(dataSource) : bean;
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        ProxyDataSource proxy = ProxyDataSourceBuilder.create("sql-stats", dataSource).listener(this).build();
+        // the default stopwatch counts milliseconds, most statements finish well under one
+        proxy.setProxyConfig(ProxyConfig.Builder.from(proxy.getProxyConfig())
+                .stopwatchFactory(new NanoTimeStopwatchFactory())
+                .build());
+        return proxy;
+    }
+
+    public long since() {
+        return since;
+    }
+
+    public List<JdbcStatementStatsDto> snapshot() {
+        List<JdbcStatementStatsDto> stats = new ArrayList<>();
+        timings.forEach((sql, t) -> {
+            long executions = t.executions.sum();
+            double totalMs = t.totalNanos.sum() / 1_000_000.0;
+            stats.add(new JdbcStatementStatsDto(
+                    sql,
+                    executions,
+                    t.failures.sum(),
+                    executions == 0 ? 0 : totalMs / executions,
+                    t.maxNanos.get() / 1_000_000.0,
+                    totalMs
+            ));
+        });
+        stats.sort(Comparator.comparingDouble(JdbcStatementStatsDto::totalMs).reversed());
+        return stats;
+    }
+
+    public void clear() {
+        timings.clear();
+        since = System.currentTimeMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // a prepared statement or a single plain one has one query, batches of plain statements
+    // have one per statement and share a key
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery() : BATCH;
+        record(sql, execInfo.getElapsedTime(), !execInfo.isSuccess());
+    }
+
+    private void record(String sql, long nanos, boolean failed) {
+        String key = sql.strip().replaceAll("\\s+", " ");
+        Timing t = timings.get(key);
+        if (t == null) {
+            t = timings.size() < MAX_STATEMENTS
+                    ? timings.computeIfAbsent(key, k -> new Timing())
+                    : timings.computeIfAbsent(OVERFLOW, k -> new Timing());
+        }
+        t.executions.increment();
+        t.totalNanos.add(nanos);
+        t.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (failed) {
+            t.failures.increment();
+        }
+    }
+
+    private static final class Timing {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+    }
+}
@@ -1,42 +1,54 @@
 package org.devbulchandani.backend.config;
 
-import dev.langchain4j.mcp.McpToolProvider;
 import dev.langchain4j.mcp.client.DefaultMcpClient;
-import dev.langchain4j.mcp.client.McpClient;
-import dev.langchain4j.mcp.client.transport.McpTransport;
-
 import dev.langchain4j.mcp.client.transport.http.StreamableHttpMcpTransport;
+import org.devbulchandani.backend.tools.LazyMcpEndpoint;
+import org.devbulchandani.backend.tools.McpClientPool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Clients are created per endpoint on first use: DefaultMcpClient connects and initializes the
+// session when it is built, which would put remote round trips on every cold start.
 @Configuration
 public class McpConfiguration {
-    @Bean
-    public McpTransport repoMcpTransport() {
-        return StreamableHttpMcpTransport.builder()
-                .url("https://buildspace-repo-analyzer-985437920499.asia-south1.run.app/mcp")
-                .logRequests(true)
-                .logResponses(true)
-                .build();
-    }
 
-    @Bean
-    public McpClient repoMcpClient(McpTransport repoMcpTransport) {
-        return DefaultMcpClient.builder()
-                .key("repo-analyzer")
-                .transport(repoMcpTransport)
-                .build();
-    }
+    @Bean(destroyMethod = "close")
+    public McpClientPool repoToolProvider(
+            @Value("${mcp.endpoints}") List<String> urls,
+            @Value("${mcp.timeout-seconds}") long timeoutSeconds,
+            @Value("${mcp.tool-timeout-seconds}") long toolTimeoutSeconds,
+            @Value("${mcp.ejection.failure-threshold}") int failureThreshold,
+            @Value("${mcp.ejection.cooldown-seconds}") long cooldownSeconds,
+            @Value("${mcp.ejection.probe-timeout-seconds}") long probeTimeoutSeconds) {
 
-    @Bean
-    public McpToolProvider repoToolProvider(McpClient repoMcpClient) {
-        return McpToolProvider.builder()
-                .mcpClients(repoMcpClient)
-                .filterToolNames(
-                        "analyze_project",
-                        "read_file",
-                        "read_files"
-                )
-                .build();
+        List<McpClientPool.Endpoint> endpoints = new ArrayList<>();
+        for (String rawUrl : urls) {
+            String url = rawUrl.trim();
+            String key = "repo-analyzer-" + (endpoints.size() + 1);
+            endpoints.add(new LazyMcpEndpoint(url, () -> DefaultMcpClient.builder()
+                    .key(key)
+                    .transport(StreamableHttpMcpTransport.builder()
+                            .url(url)
+                            .timeout(Duration.ofSeconds(timeoutSeconds))
+                            .logRequests(false)
+                            .logResponses(false)
+                            .build())
+                    .pingTimeout(Duration.ofSeconds(probeTimeoutSeconds))
+                    // stops waiting and cancels the call on the server; the transport itself
+                    // only has a connect timeout
+                    .toolExecutionTimeout(Duration.ofSeconds(toolTimeoutSeconds))
+                    .build(),
+                    "analyze_project",
+                    "read_file",
+                    "read_files"
+            ));
+        }
+        return new McpClientPool(endpoints, failureThreshold, Duration.ofSeconds(cooldownSeconds),
+                Duration.ofSeconds(probeTimeoutSeconds));
     }
 }
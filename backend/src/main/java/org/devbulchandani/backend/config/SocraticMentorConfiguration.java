@@ -1,22 +1,49 @@
 package org.devbulchandani.backend.config;
 
-import dev.langchain4j.mcp.McpToolProvider;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolProvider;
 import org.devbulchandani.backend.dtos.MentorBot;
+import org.devbulchandani.backend.tools.CompositeToolProvider;
+import org.devbulchandani.backend.tools.McpClientPool;
+import org.devbulchandani.backend.tools.ParallelToolExecutor;
+import org.devbulchandani.backend.tools.RepositoryTools;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class SocraticMentorConfiguration {
+    @Bean
+    public ToolProvider mentorToolProvider(
+            McpClientPool repoToolProvider,
+            RepositoryTools repositoryTools) {
+
+        return new CompositeToolProvider(List.of(repoToolProvider), repositoryTools);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ParallelToolExecutor toolCallExecutor(
+            @Value("${mentor.tools.max-concurrency}") int maxConcurrency,
+            @Value("${mentor.tools.turn-deadline-seconds}") long turnDeadlineSeconds) {
+
+        return new ParallelToolExecutor(maxConcurrency, Duration.ofSeconds(turnDeadlineSeconds));
+    }
+
     @Bean
     public MentorBot mentorBot(
-            ChatModel gemini,
-            McpToolProvider repoToolProvider) {
+            @Lazy ChatModel gemini,
+            ToolProvider mentorToolProvider,
+            ParallelToolExecutor toolCallExecutor) {
 
         return AiServices.builder(MentorBot.class)
                 .chatModel(gemini)
-                .toolProvider(repoToolProvider)
+                .toolProvider(toolCallExecutor.withTurnDeadline(mentorToolProvider))
+                .executeToolsConcurrently(toolCallExecutor)
                 .build();
     }
 
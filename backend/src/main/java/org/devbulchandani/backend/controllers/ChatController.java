@@ -5,6 +5,9 @@ import org.devbulchandani.backend.dtos.MentorBot;
 import org.devbulchandani.backend.models.LearningPlan;
 import org.devbulchandani.backend.repositories.LearningPlanRepository;
 import org.devbulchandani.backend.services.LearningContextService;
+import org.devbulchandani.backend.services.MentorPromptService;
+import org.devbulchandani.backend.services.RetrievalService;
+import org.devbulchandani.backend.usage.UsageContext;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -18,11 +21,15 @@ public class ChatController {
     private final MentorBot mentorBot;
     private final LearningPlanRepository planRepo;
     private final LearningContextService planContext;
+    private final RetrievalService retrievalService;
+    private final MentorPromptService mentorPrompts;
 
-    public ChatController(MentorBot mentorBot, LearningPlanRepository planRepo, LearningContextService planContext) {
+    public ChatController(MentorBot mentorBot, LearningPlanRepository planRepo, LearningContextService planContext, RetrievalService retrievalService, MentorPromptService mentorPrompts) {
         this.mentorBot = mentorBot;
         this.planRepo = planRepo;
         this.planContext = planContext;
+        this.retrievalService = retrievalService;
+        this.mentorPrompts = mentorPrompts;
     }
 
 
@@ -36,54 +43,20 @@ public class ChatController {
                 ? req.repoUrl() 
                 : plan.getGithubUrl();
         
-        // Build the enriched prompt
-        String enrichedPrompt;
-        
-        if (repoUrl == null || repoUrl.trim().isEmpty()) {
-            // No repository URL available
-            enrichedPrompt = """
-            USER QUESTION:
-            %s
-
-            IMPORTANT INSTRUCTIONS TO YOU (AI):
-            - The user has NOT provided a GitHub repository URL yet.
-            - You can still provide general guidance and answer conceptual questions.
-            - Suggest that they add their repository URL in the settings for code-specific analysis.
-            - Answer in a Socratic way (ask guiding questions, do NOT give full code).
-
-            === LEARNING CONTEXT ===
-            %s
-            """.formatted(
-                        req.message(),
-                        planContext.buildPlanContext(plan)
-                );
-        } else {
-            // Repository URL is available
-            enrichedPrompt = """
-            USER QUESTION:
-            %s
-
-            GITHUB REPOSITORY URL:
-            %s
-
-            IMPORTANT INSTRUCTIONS TO YOU (AI):
-            - Use the GitHub repository URL above with your MCP tools to analyze the code.
-            - Available MCP tools: analyze_project, read_file, read_files
-            - All these tools require the 'repoUrl' parameter - use the URL provided above.
-            - Read the project files you need to understand the user's code.
-            - Then answer in a Socratic way (ask guiding questions, do NOT give full code).
-            - Reference specific files and code you found in the repository.
-
-            === LEARNING CONTEXT ===
-            %s
-            """.formatted(
-                        req.message(),
-                        repoUrl,
-                        planContext.buildPlanContext(plan)
-                );
+        boolean hasRepo = repoUrl != null && !repoUrl.trim().isEmpty();
+        String relevantCode = hasRepo ? retrievalService.relevantCode(repoUrl, req.message()) : "";
+
+        String enrichedPrompt = mentorPrompts.chatPrompt(
+                plan.getId(),
+                repoUrl,
+                () -> planContext.buildPlanContext(plan.getId()),
+                req.message(),
+                relevantCode
+        );
+
+        try (UsageContext.Scope usage = UsageContext.open(plan.getUser().getId(), plan.getId(), UsageContext.CHAT)) {
+            return mentorBot.chat(enrichedPrompt);
         }
-        
-        return mentorBot.chat(enrichedPrompt);
     }
 
 }
@@ -1,29 +1,36 @@
 package org.devbulchandani.backend.controllers;
 
-import org.devbulchandani.backend.models.LearningPlan;
-import org.devbulchandani.backend.repositories.LearningPlanRepository;
 import org.devbulchandani.backend.services.LearningContextService;
+import org.devbulchandani.backend.services.PlanVersionService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/context")
 public class ContextController {
     private final LearningContextService  learningContextService;
-    private final LearningPlanRepository  planRepo;
+    private final PlanVersionService planVersions;
 
 
-    public ContextController(LearningContextService learningContextService, LearningPlanRepository planRepo) {
+    public ContextController(LearningContextService learningContextService, PlanVersionService planVersions) {
         this.learningContextService = learningContextService;
-        this.planRepo = planRepo;
+        this.planVersions = planVersions;
     }
 
     @GetMapping("/learning-plan/{planId}")
-    public String getLearningContext(@PathVariable("planId") long planId){
-        LearningPlan plan = planRepo.findById(planId)
-                .orElseThrow(() -> new RuntimeException("Learning plan not found"));
-        return learningContextService.buildPlanContext(plan);
+    public ResponseEntity<String> getLearningContext(@PathVariable("planId") long planId, WebRequest request){
+        String etag = planVersions.planContextEtag(planId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(learningContextService.buildPlanContext(planId));
     }
 }
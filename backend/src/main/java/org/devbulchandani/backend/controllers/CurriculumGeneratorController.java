@@ -1,10 +1,15 @@
 package org.devbulchandani.backend.controllers;
 
+import org.devbulchandani.backend.dtos.PlanProgressDto;
 import org.devbulchandani.backend.dtos.PlanRequest;
 import org.devbulchandani.backend.models.LearningPlan;
 import org.devbulchandani.backend.services.CurriculumGeneratorService;
+import org.devbulchandani.backend.services.PlanVersionService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,9 +17,11 @@ import java.util.List;
 @RequestMapping("/api/plans")
 public class CurriculumGeneratorController {
     private final CurriculumGeneratorService service;
+    private final PlanVersionService planVersions;
 
-    public CurriculumGeneratorController(CurriculumGeneratorService service) {
+    public CurriculumGeneratorController(CurriculumGeneratorService service, PlanVersionService planVersions) {
         this.service = service;
+        this.planVersions = planVersions;
     }
 
     @Value("${gemini.api.key:${GEMINI_API_KEY}}")
@@ -39,14 +46,34 @@ public class CurriculumGeneratorController {
     }
 
     @GetMapping("/my-plans")
-    public List<LearningPlan> getMyPlans(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<LearningPlan>> getMyPlans(@RequestHeader("Authorization") String authHeader, WebRequest request) {
         String token = authHeader.replace("Bearer ", "");
-        return service.findByUserEmail(token);
+        String etag = planVersions.myPlansEtag(token);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(service.findByUserEmail(token));
+    }
+
+    @GetMapping("/progress")
+    public List<PlanProgressDto> getProgress(@RequestHeader("Authorization") String authHeader) {
+        String token = authHeader.replace("Bearer ", "");
+        return service.getProgress(token);
     }
 
     @GetMapping("/{planId}")
-    public LearningPlan getPlan(@PathVariable long planId){
-        return service.getPlanById(planId);
+    public ResponseEntity<LearningPlan> getPlan(@PathVariable long planId, WebRequest request){
+        String etag = planVersions.planEtag(planId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(service.getPlanById(planId));
     }
 
     @PutMapping("/{planId}/github")
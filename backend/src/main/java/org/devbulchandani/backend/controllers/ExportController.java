@@ -0,0 +1,49 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.services.ExportService;
+import org.devbulchandani.backend.utils.AdminAuth;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+    private final ExportService exportService;
+    private final AdminAuth adminAuth;
+
+    public ExportController(ExportService exportService, AdminAuth adminAuth) {
+        this.exportService = exportService;
+        this.adminAuth = adminAuth;
+    }
+
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+
+        adminAuth.require(adminToken);
+        if (!exportService.isDataset(dataset)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = csv
+                ? out -> exportService.exportCsv(dataset, from, to, out)
+                : out -> exportService.exportNdjson(dataset, from, to, out);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + dataset + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,29 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.dtos.McpEndpointStatsDto;
+import org.devbulchandani.backend.tools.McpClientPool;
+import org.devbulchandani.backend.utils.AdminAuth;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/mcp")
+public class McpStatusController {
+    private final McpClientPool mcpPool;
+    private final AdminAuth adminAuth;
+
+    public McpStatusController(McpClientPool mcpPool, AdminAuth adminAuth) {
+        this.mcpPool = mcpPool;
+        this.adminAuth = adminAuth;
+    }
+
+    @GetMapping("/endpoints")
+    public List<McpEndpointStatsDto> endpoints(@RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+        adminAuth.require(adminToken);
+        return mcpPool.stats();
+    }
+}
@@ -0,0 +1,75 @@
+package org.devbulchandani.backend.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.devbulchandani.backend.config.JdbcStatementStats;
+import org.devbulchandani.backend.dtos.JdbcStatementStatsDto;
+import org.devbulchandani.backend.dtos.SqlStatementStatsDto;
+import org.devbulchandani.backend.utils.AdminAuth;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL statistics for the running instance. {@code queries} are Hibernate's HQL/JPQL statistics
+ * (with row counts), {@code statements} are timings of every statement sent through the
+ * DataSource, which also covers JdbcTemplate and native SQL.
+ */
+@RestController
+@RequestMapping("/api/admin/sql-stats")
+public class SqlStatsController {
+    private static final int MAX_QUERIES = 50;
+
+    private final Statistics statistics;
+    private final JdbcStatementStats statementStats;
+    private final AdminAuth adminAuth;
+
+    public SqlStatsController(EntityManagerFactory entityManagerFactory, JdbcStatementStats statementStats, AdminAuth adminAuth) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statementStats = statementStats;
+        this.adminAuth = adminAuth;
+    }
+
+    @GetMapping
+    public Map<String, Object> stats(@RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+        adminAuth.require(adminToken);
+
+        List<SqlStatementStatsDto> queries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics q = statistics.getQueryStatistics(query);
+            queries.add(new SqlStatementStatsDto(
+                    query,
+                    q.getExecutionCount(),
+                    q.getExecutionRowCount(),
+                    q.getExecutionAvgTime(),
+                    q.getExecutionMaxTime(),
+                    q.getExecutionAvgTime() * q.getExecutionCount()
+            ));
+        }
+        queries.sort(Comparator.comparingLong(SqlStatementStatsDto::totalMs).reversed());
+        List<JdbcStatementStatsDto> statements = statementStats.snapshot();
+
+        return Map.of(
+                "since", statistics.getStart(),
+                "preparedStatements", statistics.getPrepareStatementCount(),
+                "entityLoads", statistics.getEntityLoadCount(),
+                "slowestQuery", String.valueOf(statistics.getQueryExecutionMaxTimeQueryString()),
+                "slowestQueryMs", statistics.getQueryExecutionMaxTime(),
+                "queries", queries.size() > MAX_QUERIES ? queries.subList(0, MAX_QUERIES) : queries,
+                "statementsSince", statementStats.since(),
+                "statements", statements.size() > MAX_QUERIES ? statements.subList(0, MAX_QUERIES) : statements
+        );
+    }
+
+    @PostMapping("/reset")
+    public void reset(@RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+        adminAuth.require(adminToken);
+        statistics.clear();
+        statementStats.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.dtos.DailyUsageDto;
+import org.devbulchandani.backend.dtos.UserUsageDto;
+import org.devbulchandani.backend.usage.UsageStore;
+import org.devbulchandani.backend.utils.AdminAuth;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/usage")
+public class UsageController {
+    private final UsageStore usageStore;
+    private final AdminAuth adminAuth;
+
+    public UsageController(UsageStore usageStore, AdminAuth adminAuth) {
+        this.usageStore = usageStore;
+        this.adminAuth = adminAuth;
+    }
+
+    @GetMapping("/daily")
+    public List<DailyUsageDto> daily(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+        adminAuth.require(adminToken);
+        return usageStore.dailyTotals(fromOrDefault(from), toOrDefault(to));
+    }
+
+    @GetMapping("/users")
+    public List<UserUsageDto> users(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+        adminAuth.require(adminToken);
+        return usageStore.userTotals(fromOrDefault(from), toOrDefault(to));
+    }
+
+    @GetMapping("/users/{userId}/daily")
+    public List<DailyUsageDto> userDaily(
+            @PathVariable long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "X-Admin-Token", required = false) String adminToken) {
+        adminAuth.require(adminToken);
+        return usageStore.dailyTotalsForUser(userId, fromOrDefault(from), toOrDefault(to));
+    }
+
+    // last 30 days when no range is given
+    private static LocalDate fromOrDefault(LocalDate from) {
+        return from != null ? from : LocalDate.now().minusDays(29);
+    }
+
+    private static LocalDate toOrDefault(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+}
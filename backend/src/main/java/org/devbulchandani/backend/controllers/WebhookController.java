@@ -0,0 +1,71 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.dtos.GithubPushEvent;
+import org.devbulchandani.backend.services.VerificationQueueService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/webhooks")
+public class WebhookController {
+    private final VerificationQueueService verificationQueue;
+    private final String githubSecret;
+
+    public WebhookController(
+            VerificationQueueService verificationQueue,
+            @Value("${webhook.github.secret}") String githubSecret) {
+        this.verificationQueue = verificationQueue;
+        this.githubSecret = githubSecret;
+    }
+
+    @PostMapping("/github")
+    public ResponseEntity<Map<String, Object>> github(
+            @RequestHeader("X-GitHub-Event") String event,
+            @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
+            @RequestBody byte[] payload) throws IOException {
+
+        // without a configured secret nothing can be verified, so pushes are refused
+        if (githubSecret.isBlank()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Webhook secret not configured"));
+        }
+        if (!validSignature(payload, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid signature"));
+        }
+        if (!"push".equals(event)) {
+            return ResponseEntity.ok(Map.of("ignored", event));
+        }
+
+        GithubPushEvent push = GithubPushEvent.parse(payload);
+        if (!push.isDefaultBranchPush()) {
+            return ResponseEntity.ok(Map.of("ignored", String.valueOf(push.ref())));
+        }
+
+        int queued = verificationQueue.enqueuePush(push);
+        return ResponseEntity.accepted().body(Map.of("queued", queued));
+    }
+
+    private boolean validSignature(byte[] payload, String signature) {
+        if (signature == null || !signature.startsWith("sha256=")) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(githubSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] expected = mac.doFinal(payload);
+            byte[] actual = HexFormat.of().parseHex(signature.substring("sha256=".length()));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.devbulchandani.backend.dtos;
+
+import java.time.LocalDate;
+
+public record DailyUsageDto(
+        LocalDate day,
+        long calls,
+        long inputTokens,
+        long outputTokens,
+        long thinkingTokens
+) {}
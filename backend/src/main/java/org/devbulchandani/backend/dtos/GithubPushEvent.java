@@ -0,0 +1,65 @@
+package org.devbulchandani.backend.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public record GithubPushEvent(
+        String ref,
+        String after,
+        boolean deleted,
+        String defaultBranch,
+        List<String> repoUrls
+) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static GithubPushEvent parse(byte[] payload) throws IOException {
+        JsonNode root = MAPPER.readTree(payload);
+        JsonNode repository = root.path("repository");
+
+        List<String> urls = new ArrayList<>();
+        for (String field : List.of("html_url", "clone_url")) {
+            String url = repository.path(field).asText(null);
+            if (url != null && !url.isBlank()) {
+                urls.add(url);
+            }
+        }
+
+        return new GithubPushEvent(
+                root.path("ref").asText(null),
+                root.path("after").asText(null),
+                root.path("deleted").asBoolean(false),
+                repository.path("default_branch").asText(null),
+                urls
+        );
+    }
+
+    public boolean isDefaultBranchPush() {
+        return !deleted && ref != null && ref.equals("refs/heads/" + defaultBranch);
+    }
+
+    /**
+     * The spellings a user may have saved as {@code LearningPlan.githubUrl} for this repository.
+     */
+    public List<String> repoUrlVariants() {
+        Set<String> variants = new LinkedHashSet<>();
+        for (String url : repoUrls) {
+            String base = url.trim();
+            while (base.endsWith("/")) {
+                base = base.substring(0, base.length() - 1);
+            }
+            if (base.endsWith(".git")) {
+                base = base.substring(0, base.length() - 4);
+            }
+            variants.add(base);
+            variants.add(base + ".git");
+            variants.add(base + "/");
+        }
+        return new ArrayList<>(variants);
+    }
+}
@@ -0,0 +1,10 @@
+package org.devbulchandani.backend.dtos;
+
+public record JdbcStatementStatsDto(
+        String sql,
+        long executions,
+        long failures,
+        double avgMs,
+        double maxMs,
+        double totalMs
+) {}
@@ -0,0 +1,12 @@
+package org.devbulchandani.backend.dtos;
+
+public record McpEndpointStatsDto(
+        String endpoint,
+        boolean healthy,
+        int outstanding,
+        long calls,
+        long failures,
+        double avgLatencyMs,
+        double recentLatencyMs,
+        double maxLatencyMs
+) {}
@@ -0,0 +1,8 @@
+package org.devbulchandani.backend.dtos;
+
+public record MilestoneContextDto(
+        int sequenceNumber,
+        String title,
+        String description,
+        boolean completed
+) {}
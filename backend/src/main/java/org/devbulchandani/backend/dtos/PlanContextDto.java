@@ -0,0 +1,8 @@
+package org.devbulchandani.backend.dtos;
+
+public record PlanContextDto(
+        String projectName,
+        String projectDescription,
+        int durationDays,
+        String skillLevel
+) {}
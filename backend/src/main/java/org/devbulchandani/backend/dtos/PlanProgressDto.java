@@ -0,0 +1,11 @@
+package org.devbulchandani.backend.dtos;
+
+import java.time.LocalDateTime;
+
+public record PlanProgressDto(
+        long planId,
+        String projectName,
+        int totalMilestones,
+        int completedMilestones,
+        LocalDateTime lastVerifiedAt
+) {}
@@ -0,0 +1,10 @@
+package org.devbulchandani.backend.dtos;
+
+import java.time.LocalDateTime;
+
+public record PlanVersion(
+        long planCount,
+        long milestoneCount,
+        LocalDateTime planUpdatedAt,
+        LocalDateTime milestoneUpdatedAt
+) {}
@@ -0,0 +1,10 @@
+package org.devbulchandani.backend.dtos;
+
+public record SqlStatementStatsDto(
+        String query,
+        long executions,
+        long rows,
+        long avgMs,
+        long maxMs,
+        long totalMs
+) {}
@@ -0,0 +1,10 @@
+package org.devbulchandani.backend.dtos;
+
+public record UserUsageDto(
+        long userId,
+        String email,
+        long calls,
+        long inputTokens,
+        long outputTokens,
+        long thinkingTokens
+) {}
@@ -0,0 +1,50 @@
+package org.devbulchandani.backend.logging;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logs model requests and responses to the sampled {@code payload.llm} category as payload
+ * summaries, never the full prompt.
+ */
+@Component
+public class LlmPayloadLogger implements ChatModelListener {
+    private static final Logger log = LoggerFactory.getLogger("payload.llm");
+
+    @Override
+    public void onRequest(ChatModelRequestContext context) {
+        List<ChatMessage> messages = context.chatRequest().messages();
+        String lastUserText = null;
+        for (ChatMessage message : messages) {
+            if (message instanceof UserMessage user && user.hasSingleText()) {
+                lastUserText = user.singleText();
+            }
+        }
+        log.info("llm request messages={} prompt={}", messages.size(), PayloadLog.of(lastUserText));
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        ChatResponse response = context.chatResponse();
+        log.info("llm response model={} tokens={} toolCalls={} text={}",
+                response.metadata().modelName(),
+                response.metadata().tokenUsage(),
+                response.aiMessage().hasToolExecutionRequests() ? response.aiMessage().toolExecutionRequests().size() : 0,
+                PayloadLog.of(response.aiMessage().text()));
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        log.warn("llm request failed: {}", context.error().toString());
+    }
+}
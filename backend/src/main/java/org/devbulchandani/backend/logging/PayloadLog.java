@@ -0,0 +1,45 @@
+package org.devbulchandani.backend.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Log argument for prompts, model answers and tool outputs: the length, a short SHA-256 (to
+ * correlate identical payloads across log lines) and a truncated preview instead of the whole
+ * text. The summary is only computed if the event is actually written.
+ */
+public final class PayloadLog {
+    private static final int PREVIEW_CHARS = 160;
+
+    private final String payload;
+
+    private PayloadLog(String payload) {
+        this.payload = payload;
+    }
+
+    public static PayloadLog of(String payload) {
+        return new PayloadLog(payload);
+    }
+
+    @Override
+    public String toString() {
+        if (payload == null) {
+            return "null";
+        }
+        String preview = payload.length() > PREVIEW_CHARS ? payload.substring(0, PREVIEW_CHARS) + "..." : payload;
+        return "[len=" + payload.length()
+                + " sha256=" + hash(payload)
+                + " preview=\"" + preview.replace("\r", "\\r").replace("\n", "\\n") + "\"]";
+    }
+
+    private static String hash(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
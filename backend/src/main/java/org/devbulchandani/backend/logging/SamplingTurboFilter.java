@@ -0,0 +1,51 @@
+package org.devbulchandani.backend.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in N events below WARN for the configured logger categories, e.g.
+ * {@code <sample>payload.llm=10</sample>}. It runs before the event is built, so dropped events
+ * never format their arguments; {@link PayloadLog} summaries of dropped events are never hashed.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private final List<Category> categories = new ArrayList<>();
+
+    public void addSample(String sample) {
+        int separator = sample.lastIndexOf('=');
+        if (separator < 0) {
+            addError("Sample must look like <logger>=<keep one in N>: " + sample);
+            return;
+        }
+        String prefix = sample.substring(0, separator).trim();
+        long oneIn = Long.parseLong(sample.substring(separator + 1).trim());
+        categories.add(new Category(prefix, Math.max(1, oneIn), new AtomicLong()));
+        // most specific category first
+        categories.sort(Comparator.comparingInt((Category c) -> c.prefix.length()).reversed());
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, those must not consume a sample
+        if (format == null || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        for (Category c : categories) {
+            if (name.startsWith(c.prefix)) {
+                return c.seen.getAndIncrement() % c.oneIn == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private record Category(String prefix, long oneIn, AtomicLong seen) {}
+}
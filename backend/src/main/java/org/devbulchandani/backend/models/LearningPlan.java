@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "learning_plans")
+@Table(name = "learning_plans", indexes = {
+        @Index(name = "idx_learning_plans_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_learning_plans_github_url", columnList = "github_url")
+})
 @Getter
 @Setter
 @Builder
@@ -41,7 +44,16 @@ public class LearningPlan {
 
     private String projectPath;
 
+    @Column(nullable = false)
+    private int totalMilestones;
+
+    @Column(nullable = false)
+    private int completedMilestones;
+
+    private LocalDateTime lastVerifiedAt;
+
     @OneToMany(mappedBy = "learningPlan", cascade = CascadeType.ALL)
+    @OrderBy("sequenceNumber ASC")
     private List<Milestone> milestones;
 
     @CreationTimestamp
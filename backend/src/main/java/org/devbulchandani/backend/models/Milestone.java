@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "milestones")
+@Table(name = "milestones", indexes = {
+        @Index(name = "idx_milestones_plan_sequence", columnList = "learning_plan_id, sequence_number")
+})
 @Getter
 @Setter
 @Builder
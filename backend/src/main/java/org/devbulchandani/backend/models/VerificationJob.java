@@ -0,0 +1,64 @@
+package org.devbulchandani.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "verification_jobs", indexes = {
+        @Index(name = "idx_verification_jobs_status_run_after", columnList = "status, run_after"),
+        @Index(name = "idx_verification_jobs_milestone_status", columnList = "milestone_id, status, finished_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificationJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private long milestoneId;
+
+    @Column(nullable = false)
+    private String repoUrl;
+
+    @Column(length = 64)
+    private String commitId;
+
+    // the pushed commit that queued the job; the run waits for the mirror to reach it
+    @Column(length = 64)
+    private String pushedCommit;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private VerificationJobStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime runAfter;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    private Boolean completed;
+
+    @Column(columnDefinition = "TEXT")
+    private String feedback;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
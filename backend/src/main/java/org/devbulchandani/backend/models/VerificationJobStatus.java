@@ -0,0 +1,5 @@
+package org.devbulchandani.backend.models;
+
+public enum VerificationJobStatus {
+    PENDING, RUNNING, DONE, FAILED
+}
@@ -1,12 +1,79 @@
 package org.devbulchandani.backend.repositories;
 
+import org.devbulchandani.backend.dtos.PlanContextDto;
+import org.devbulchandani.backend.dtos.PlanProgressDto;
+import org.devbulchandani.backend.dtos.PlanVersion;
 import org.devbulchandani.backend.models.LearningPlan;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LearningPlanRepository extends JpaRepository<LearningPlan, Long> {
     List<LearningPlan> findByUserEmail(String email);
+
+    List<LearningPlan> findByGithubUrlIn(List<String> githubUrls);
+
+    @Query("""
+            select new org.devbulchandani.backend.dtos.PlanProgressDto(
+                p.id, p.projectName, p.totalMilestones, p.completedMilestones, p.lastVerifiedAt)
+            from LearningPlan p
+            where p.user.email = :email
+            order by p.createdAt
+            """)
+    List<PlanProgressDto> findProgressByUserEmail(@Param("email") String email);
+
+    // a projection reads the row even when the plan is already in the persistence context
+    @Query("""
+            select new org.devbulchandani.backend.dtos.PlanContextDto(
+                p.projectName, p.projectDescription, p.durationDays, p.skillLevel)
+            from LearningPlan p
+            where p.id = :planId
+            """)
+    Optional<PlanContextDto> findContextById(@Param("planId") long planId);
+
+    @Query("""
+            select new org.devbulchandani.backend.dtos.PlanVersion(
+                count(distinct p.id), count(m.id), max(p.updatedAt), max(m.updatedAt))
+            from LearningPlan p left join p.milestones m
+            where p.id = :planId
+            """)
+    PlanVersion findVersionById(@Param("planId") long planId);
+
+    @Query("""
+            select new org.devbulchandani.backend.dtos.PlanVersion(
+                count(distinct p.id), count(m.id), max(p.updatedAt), max(m.updatedAt))
+            from LearningPlan p left join p.milestones m
+            where p.user.email = :email
+            """)
+    PlanVersion findVersionByUserEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("""
+            update LearningPlan p
+            set p.completedMilestones = p.completedMilestones + :delta,
+                p.lastVerifiedAt = :verifiedAt,
+                p.updatedAt = :verifiedAt
+            where p.id = :planId
+            """)
+    int recordVerification(@Param("planId") long planId, @Param("delta") int delta, @Param("verifiedAt") LocalDateTime verifiedAt);
+
+    // touches github_url only, so it cannot write back stale progress counters over a
+    // verification that ran in the meantime
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update LearningPlan p
+            set p.githubUrl = :githubUrl,
+                p.updatedAt = :updatedAt
+            where p.id = :planId
+            """)
+    int updateGithubUrl(@Param("planId") long planId, @Param("githubUrl") String githubUrl, @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -1,9 +1,37 @@
 package org.devbulchandani.backend.repositories;
 
+import org.devbulchandani.backend.dtos.MilestoneContextDto;
 import org.devbulchandani.backend.models.Milestone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface MilestoneRepository extends JpaRepository<Milestone, Long> {
+
+    Optional<Milestone> findFirstByLearningPlan_IdAndCompletedFalseOrderBySequenceNumberAsc(long learningPlanId);
+
+    @Query("""
+            select new org.devbulchandani.backend.dtos.MilestoneContextDto(
+                m.sequenceNumber, m.title, m.description, m.completed)
+            from Milestone m
+            where m.learningPlan.id = :planId
+            order by m.sequenceNumber
+            """)
+    List<MilestoneContextDto> findContextByPlanId(@Param("planId") long planId);
+
+    // only matches when the flag actually changes, so concurrent verifications count once
+    @Modifying
+    @Query("""
+            update Milestone m
+            set m.completed = :completed, m.updatedAt = :now
+            where m.id = :id and m.completed <> :completed
+            """)
+    int updateCompleted(@Param("id") long id, @Param("completed") boolean completed, @Param("now") LocalDateTime now);
 }
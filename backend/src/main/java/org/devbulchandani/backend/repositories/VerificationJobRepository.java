@@ -0,0 +1,90 @@
+package org.devbulchandani.backend.repositories;
+
+import org.devbulchandani.backend.models.VerificationJob;
+import org.devbulchandani.backend.models.VerificationJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VerificationJobRepository extends JpaRepository<VerificationJob, Long> {
+    Optional<VerificationJob> findFirstByMilestoneIdAndStatus(long milestoneId, VerificationJobStatus status);
+
+    Optional<VerificationJob> findFirstByMilestoneIdAndStatusOrderByFinishedAtDesc(long milestoneId, VerificationJobStatus status);
+
+    List<VerificationJob> findByStatusAndRunAfterLessThanEqualOrderByRunAfterAsc(
+            VerificationJobStatus status, LocalDateTime now, Pageable pageable);
+
+    // conditional on the job still being pending and due, so only one replica wins the claim and
+    // a push that moved run_after since the job was listed is left to debounce
+    @Transactional
+    @Modifying
+    @Query("""
+            update VerificationJob j
+            set j.status = :running, j.attempts = j.attempts + 1, j.updatedAt = :now
+            where j.id = :id and j.status = :pending and j.runAfter <= :now
+            """)
+    int claim(@Param("id") long id,
+              @Param("now") LocalDateTime now,
+              @Param("pending") VerificationJobStatus pending,
+              @Param("running") VerificationJobStatus running);
+
+    List<VerificationJob> findByStatusAndUpdatedAtBefore(VerificationJobStatus status, LocalDateTime cutoff);
+
+    // a milestone has at most one pending job (unique key on the generated pending_milestone_id),
+    // so a push inside the debounce window moves that job instead of adding a second one
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into verification_jobs
+                (milestone_id, repo_url, pushed_commit, status, run_after, attempts, created_at, updated_at)
+            values (:milestoneId, :repoUrl, :pushedCommit, 'PENDING', :runAfter, 0, :now, :now)
+            as pushed
+            on duplicate key update
+                repo_url = pushed.repo_url,
+                pushed_commit = pushed.pushed_commit,
+                run_after = pushed.run_after,
+                updated_at = pushed.updated_at
+            """, nativeQuery = true)
+    int upsertPending(@Param("milestoneId") long milestoneId,
+                      @Param("repoUrl") String repoUrl,
+                      @Param("pushedCommit") String pushedCommit,
+                      @Param("runAfter") LocalDateTime runAfter,
+                      @Param("now") LocalDateTime now);
+
+    // puts a running job back in the queue; fails on the pending key when a newer push queued
+    // the milestone in the meantime
+    @Transactional
+    @Modifying
+    @Query("""
+            update VerificationJob j
+            set j.status = :pending, j.runAfter = :runAfter, j.updatedAt = :now
+            where j.id = :id and j.status = :running
+            """)
+    int requeue(@Param("id") long id,
+                @Param("runAfter") LocalDateTime runAfter,
+                @Param("now") LocalDateTime now,
+                @Param("pending") VerificationJobStatus pending,
+                @Param("running") VerificationJobStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update VerificationJob j
+            set j.status = :failed, j.feedback = :feedback, j.finishedAt = :now, j.updatedAt = :now
+            where j.id = :id and j.status = :running
+            """)
+    int fail(@Param("id") long id,
+             @Param("feedback") String feedback,
+             @Param("now") LocalDateTime now,
+             @Param("running") VerificationJobStatus running,
+             @Param("failed") VerificationJobStatus failed);
+}
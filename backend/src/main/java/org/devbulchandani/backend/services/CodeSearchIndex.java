@@ -0,0 +1,177 @@
+package org.devbulchandani.backend.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Trigram inverted index over the source files of one repository. Each file is keyed by its
+ * git blob id, so {@link #update} only re-reads files whose content changed since the last
+ * indexed commit. Queries are split into terms; the posting lists narrow the candidate files
+ * and the matching lines are then confirmed with a plain substring scan.
+ */
+public class CodeSearchIndex {
+    private static final int MAX_SNIPPET = 200;
+
+    private final Map<String, IndexedFile> files = new HashMap<>();
+    private final Map<Long, Set<String>> postings = new HashMap<>();
+    private String commitId;
+
+    public String commitId() {
+        return commitId;
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * Brings the index in line with {@code blobs} (path to blob id). Files with an unchanged
+     * blob id are kept as they are; new or modified ones are read through {@code reader}, which
+     * may return {@code null} to skip a file (binary, too large, unreadable).
+     */
+    public void update(String commitId, Map<String, String> blobs, Function<String, String> reader) {
+        for (String path : new ArrayList<>(files.keySet())) {
+            String blobId = blobs.get(path);
+            if (blobId == null || !blobId.equals(files.get(path).blobId)) {
+                remove(path);
+            }
+        }
+
+        blobs.forEach((path, blobId) -> {
+            if (!files.containsKey(path)) {
+                String content = reader.apply(path);
+                if (content != null) {
+                    add(path, blobId, content);
+                }
+            }
+        });
+
+        this.commitId = commitId;
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Set<String> candidates = new HashSet<>();
+        for (String term : terms) {
+            candidates.addAll(candidatesFor(term));
+        }
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (String path : candidates) {
+            IndexedFile file = files.get(path);
+            String lowerPath = path.toLowerCase(Locale.ROOT);
+            int pathBonus = 0;
+            for (String term : terms) {
+                if (lowerPath.contains(term)) {
+                    pathBonus++;
+                }
+            }
+
+            for (int i = 0; i < file.lowerLines.length; i++) {
+                int matched = 0;
+                for (String term : terms) {
+                    if (file.lowerLines[i].contains(term)) {
+                        matched++;
+                    }
+                }
+                if (matched > 0) {
+                    int score = matched * 10 + pathBonus * 3 + (matched == terms.size() ? 5 : 0);
+                    hits.add(new SearchHit(path, file.blobId, i + 1, snippet(file.lines[i]), score));
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingInt(SearchHit::score).reversed()
+                .thenComparing(SearchHit::path)
+                .thenComparingInt(SearchHit::line));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    private Set<String> candidatesFor(String term) {
+        if (term.length() < 3) {
+            return files.keySet();
+        }
+
+        Set<String> result = null;
+        for (long trigram : trigrams(term)) {
+            Set<String> posting = postings.getOrDefault(trigram, Set.of());
+            if (result == null) {
+                result = new HashSet<>(posting);
+            } else {
+                result.retainAll(posting);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void add(String path, String blobId, String content) {
+        String[] lines = content.split("\r?\n", -1);
+        String[] lowerLines = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            lowerLines[i] = lines[i].toLowerCase(Locale.ROOT);
+        }
+
+        files.put(path, new IndexedFile(blobId, lines, lowerLines));
+        for (String line : lowerLines) {
+            for (long trigram : trigrams(line)) {
+                postings.computeIfAbsent(trigram, k -> new HashSet<>()).add(path);
+            }
+        }
+    }
+
+    private void remove(String path) {
+        IndexedFile file = files.remove(path);
+        for (String line : file.lowerLines) {
+            for (long trigram : trigrams(line)) {
+                Set<String> posting = postings.get(trigram);
+                if (posting != null) {
+                    posting.remove(path);
+                    if (posting.isEmpty()) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return result;
+    }
+
+    private static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String term : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            if (!term.isEmpty() && !terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static String snippet(String line) {
+        String trimmed = line.strip();
+        return trimmed.length() > MAX_SNIPPET ? trimmed.substring(0, MAX_SNIPPET) + "..." : trimmed;
+    }
+
+    public record SearchHit(String path, String blobId, int line, String snippet, int score) {}
+
+    private record IndexedFile(String blobId, String[] lines, String[] lowerLines) {}
+}
@@ -0,0 +1,103 @@
+package org.devbulchandani.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+@Service
+public class CodeSearchService {
+    private final RepositoryMirrorService mirrorService;
+    private final Map<String, Slot> indexes;
+
+    public CodeSearchService(
+            RepositoryMirrorService mirrorService,
+            @Value("${code-search.max-repos}") int maxRepos) {
+        this.mirrorService = mirrorService;
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Slot> eldest) {
+                return size() > maxRepos;
+            }
+        });
+    }
+
+    public List<CodeSearchIndex.SearchHit> search(String repoUrl, String query, int limit) {
+        // checked before the index map is touched, a bad URL must not evict a real index
+        String url = mirrorService.requireAllowed(repoUrl);
+        Slot slot = indexes.computeIfAbsent(url, u -> new Slot());
+
+        slot.lock.lock();
+        try {
+            update(url, slot.index);
+            return slot.index.search(query, limit);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * Brings the index of {@code repoUrl} up to the mirror's HEAD without searching it, so a
+     * background thread can build it ahead of {@link #searchIfReady}.
+     */
+    public void refresh(String repoUrl) {
+        String url = mirrorService.requireAllowed(repoUrl);
+        Slot slot = indexes.computeIfAbsent(url, u -> new Slot());
+
+        slot.lock.lock();
+        try {
+            update(url, slot.index);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * Searches the index of {@code repoUrl} as it was last built, without reading the mirror.
+     * Returns nothing when the repository has not been indexed yet or is being indexed right now.
+     */
+    public List<CodeSearchIndex.SearchHit> searchIfReady(String repoUrl, String query, int limit) {
+        Slot slot = indexes.get(RepositoryMirrorService.normalize(repoUrl));
+        if (slot == null || !slot.lock.tryLock()) {
+            return List.of();
+        }
+        try {
+            return slot.index.commitId() == null ? List.of() : slot.index.search(query, limit);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    // one mirror lease for the listing and all reads, which go by blob id, so the index holds
+    // exactly the commit it records even if the mirror is fetched meanwhile
+    private void update(String url, CodeSearchIndex index) {
+        mirrorService.withSourceFiles(url, (snapshot, blobReader) -> {
+            if (!Objects.equals(snapshot.commitId(), index.commitId())) {
+                Map<String, String> blobs = snapshot.blobs();
+                index.update(snapshot.commitId(), blobs, path -> readOrSkip(blobReader, blobs.get(path)));
+            }
+            return null;
+        });
+    }
+
+    private static String readOrSkip(Function<String, String> blobReader, String blobId) {
+        try {
+            String content = blobReader.apply(blobId);
+            return content.indexOf('\0') >= 0 ? null : content;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private record Slot(CodeSearchIndex index, ReentrantLock lock) {
+        private Slot() {
+            this(new CodeSearchIndex(), new ReentrantLock());
+        }
+    }
+}
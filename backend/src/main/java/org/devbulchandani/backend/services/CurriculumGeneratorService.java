@@ -2,44 +2,60 @@ package org.devbulchandani.backend.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.model.chat.ChatModel;
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
 import org.devbulchandani.backend.dtos.CurriculumResponse;
+import org.devbulchandani.backend.dtos.PlanProgressDto;
 import org.devbulchandani.backend.models.LearningPlan;
 import org.devbulchandani.backend.models.Milestone;
 import org.devbulchandani.backend.models.User;
 import org.devbulchandani.backend.repositories.LearningPlanRepository;
 import org.devbulchandani.backend.repositories.MilestoneRepository;
 import org.devbulchandani.backend.repositories.UserRepository;
+import org.devbulchandani.backend.usage.UsageContext;
 import org.devbulchandani.backend.utils.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class CurriculumGeneratorService {
+    private static final Logger log = LoggerFactory.getLogger(CurriculumGeneratorService.class);
+
     private final ChatModel gemini;
     private final ObjectMapper mapper = new ObjectMapper();
     private final LearningPlanRepository planRepo;
     private final MilestoneRepository milestoneRepo;
     private final UserRepository userRepo;
     private final JwtUtil jwtUtil;
+    private final InvalidationBus invalidationBus;
 
 
-    public CurriculumGeneratorService(ChatModel gemini, LearningPlanRepository planRepo, MilestoneRepository milestoneRepo, UserRepository userrepo, JwtUtil jwtUtil) {
+    public CurriculumGeneratorService(@Lazy ChatModel gemini, LearningPlanRepository planRepo, MilestoneRepository milestoneRepo, UserRepository userrepo, JwtUtil jwtUtil, InvalidationBus invalidationBus) {
         this.gemini = gemini;
         this.planRepo = planRepo;
         this.milestoneRepo = milestoneRepo;
         this.userRepo = userrepo;
         this.jwtUtil = jwtUtil;
+        this.invalidationBus = invalidationBus;
     }
 
     public LearningPlan generatePlan(String token, String tech, int days, String skillLevel) {
         String prompt = buildPrompt(tech, days, skillLevel);
 
-        String aiJson = gemini.chat(prompt);
         String email = jwtUtil.extractEmail(token);
         User user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        String aiJson;
+        try (UsageContext.Scope usage = UsageContext.open(user.getId(), null, UsageContext.CURRICULUM)) {
+            aiJson = gemini.chat(prompt);
+        }
+
         try {
             CurriculumResponse response =
                     mapper.readValue(aiJson, CurriculumResponse.class);
@@ -51,6 +67,7 @@ public class CurriculumGeneratorService {
                     .projectName(response.projectName())
                     .projectDescription(response.projectDescription())
                     .skillLevel(skillLevel)
+                    .totalMilestones(response.milestones().size())
                     .build();
 
             plan = planRepo.save(plan);
@@ -67,7 +84,8 @@ public class CurriculumGeneratorService {
 
                 milestoneRepo.save(milestone);
             }
-            System.out.println("Plans: " + plan);
+            invalidationBus.publish(Invalidation.plan(plan.getId()));
+            log.info("Created plan {} with {} milestones", plan.getId(), response.milestones().size());
 
             return plan;
 
@@ -117,6 +135,11 @@ public class CurriculumGeneratorService {
         return planRepo.findByUserEmail(email);
     }
 
+    public List<PlanProgressDto> getProgress(String token) {
+        String email = jwtUtil.extractEmail(token);
+        return planRepo.findProgressByUserEmail(email);
+    }
+
     public LearningPlan updateGithubUrl(long learningPlanId, String githubUrl, String token){
         String email = jwtUtil.extractEmail(token);
         LearningPlan plan = planRepo.findById(learningPlanId)
@@ -126,9 +149,9 @@ public class CurriculumGeneratorService {
             throw new RuntimeException("Unauthorized: This plan does not belong to you");
         }
 
-        plan.setGithubUrl(githubUrl);
-        planRepo.save(plan);
-        return plan;
+        planRepo.updateGithubUrl(learningPlanId, githubUrl, LocalDateTime.now());
+        invalidationBus.publish(Invalidation.plan(learningPlanId));
+        return getPlanById(learningPlanId);
     }
 
     public LearningPlan getPlanById(long planId) {
@@ -0,0 +1,184 @@
+package org.devbulchandani.backend.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams whole tables for reporting. Rows go straight from a forward-only MySQL result set
+ * (fetch size {@link Integer#MIN_VALUE} makes Connector/J stream row by row instead of buffering
+ * the result) to the response, without entities or a persistence context, so heap use does not
+ * grow with the number of rows.
+ */
+@Service
+public class ExportService {
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final Map<String, List<String>> DATASETS = Map.of(
+            "learning_plans", List.of("id", "user_id", "tech", "project_name", "project_description",
+                    "duration_days", "skill_level", "github_url", "total_milestones", "completed_milestones",
+                    "last_verified_at", "created_at", "updated_at"),
+            "milestones", List.of("id", "learning_plan_id", "sequence_number", "title", "description",
+                    "learning_objectives", "completed", "created_at", "updated_at"),
+            "chat_messages", List.of("id", "user_id", "role", "message", "created_at")
+    );
+
+    private final DataSource dataSource;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isDataset(String dataset) {
+        return DATASETS.containsKey(dataset);
+    }
+
+    public void exportNdjson(String dataset, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        List<String> columns = DATASETS.get(dataset);
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.setRootValueSeparator(null);
+            stream(dataset, from, to, (rs, row) -> {
+                json.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    json.writeFieldName(columns.get(i));
+                    writeJsonValue(json, rs.getObject(i + 1));
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (row % FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void exportCsv(String dataset, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        List<String> columns = DATASETS.get(dataset);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+            stream(dataset, from, to, (rs, row) -> {
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvValue(rs.getObject(i + 1)));
+                }
+                writer.write('\n');
+                if (row % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void stream(String dataset, LocalDateTime from, LocalDateTime to, RowWriter rowWriter) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", DATASETS.get(dataset)))
+                .append(" FROM ").append(dataset)
+                .append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY id");
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            connection.setReadOnly(true);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                long row = 0;
+                try {
+                    while (rs.next()) {
+                        rowWriter.write(rs, ++row);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // closing a streaming result set reads the rest of it first; cancel the
+                    // query so a client that went away does not hold the connection that long
+                    cancel(ps, e);
+                    throw e;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Export of " + dataset + " failed", e);
+        }
+    }
+
+    private static void cancel(PreparedStatement ps, Exception cause) {
+        try {
+            ps.cancel();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void writeJsonValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Boolean b) {
+            json.writeBoolean(b);
+        } else if (value instanceof Long l) {
+            json.writeNumber(l);
+        } else if (value instanceof Integer i) {
+            json.writeNumber(i);
+        } else if (value instanceof Number n) {
+            json.writeNumber(n.toString());
+        } else if (value instanceof Timestamp t) {
+            json.writeString(t.toLocalDateTime().toString());
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Timestamp t ? t.toLocalDateTime().toString() : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs, long row) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,310 @@
+package org.devbulchandani.backend.services;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Fixed-capacity HNSW graph for cosine similarity over unit-length vectors. Vectors are kept
+ * off-heap as float16 in a single direct buffer (2 bytes per dimension) that grows as vectors
+ * are added, up to the capacity; only the neighbour lists live on the heap. Removal is a
+ * tombstone: removed nodes still route searches but are never returned, and callers rebuild
+ * the index once too many of them pile up.
+ *
+ * <p>Not thread-safe; callers synchronize on the owning index.
+ */
+public class HnswIndex {
+    private static final int INITIAL_VECTORS = 256;
+
+    private final int dimensions;
+    private final int capacity;
+    private final int m;
+    private final int maxLevelZeroLinks;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private ByteBuffer vectors;
+    private final List<int[][]> links = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimensions, int capacity, int m, int efConstruction) {
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.m = m;
+        this.maxLevelZeroLinks = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.vectors = allocate(Math.min(capacity, INITIAL_VECTORS));
+    }
+
+    int allocatedVectors() {
+        return vectors.capacity() / (dimensions * 2);
+    }
+
+    public int size() {
+        return links.size();
+    }
+
+    public int removedCount() {
+        return removed.cardinality();
+    }
+
+    public boolean isFull() {
+        return links.size() >= capacity;
+    }
+
+    /**
+     * Adds a unit-length vector and returns its node id, ids are assigned sequentially from 0.
+     */
+    public int add(float[] vector) {
+        if (isFull()) {
+            throw new IllegalStateException("HNSW index is full (" + capacity + " vectors)");
+        }
+
+        int id = links.size();
+        if (id == allocatedVectors()) {
+            grow();
+        }
+        int base = id * dimensions * 2;
+        for (int i = 0; i < dimensions; i++) {
+            vectors.putShort(base + i * 2, toHalf(vector[i]));
+        }
+
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[0];
+        }
+        links.add(nodeLinks);
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return id;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vector, current, efConstruction, l);
+            int maxLinks = l == 0 ? maxLevelZeroLinks : m;
+            int[] selected = closest(candidates, m);
+            nodeLinks[l] = selected;
+
+            for (int neighbour : selected) {
+                connect(neighbour, id, l, maxLinks);
+            }
+            current = candidates.get(0).id;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+        return id;
+    }
+
+    public void remove(int id) {
+        removed.set(id);
+    }
+
+    public float[] vector(int id) {
+        float[] result = new float[dimensions];
+        int base = id * dimensions * 2;
+        for (int i = 0; i < dimensions; i++) {
+            result[i] = toFloat(vectors.getShort(base + i * 2));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids of up to {@code k} live nodes closest to {@code query}, best first.
+     */
+    public List<Integer> search(float[] query, int k, int ef) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+
+        List<Integer> result = new ArrayList<>();
+        for (Candidate c : searchLayer(query, current, Math.max(ef, k), 0)) {
+            if (!removed.get(c.id)) {
+                result.add(c.id);
+                if (result.size() == k) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // doubles the vector buffer, never past the capacity
+    private void grow() {
+        ByteBuffer grown = allocate(Math.min(capacity, allocatedVectors() * 2));
+        grown.put(vectors.duplicate().clear());
+        vectors = grown;
+    }
+
+    private ByteBuffer allocate(int vectorCount) {
+        return ByteBuffer.allocateDirect(vectorCount * dimensions * 2).order(ByteOrder.nativeOrder());
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        double currentDistance = distance(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links.get(current)[level]) {
+                double d = distance(query, neighbour);
+                if (d < currentDistance) {
+                    current = neighbour;
+                    currentDistance = d;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(links.size());
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate first = new Candidate(start, distance(query, start));
+        visited.set(start);
+        toVisit.add(first);
+        best.add(first);
+
+        while (!toVisit.isEmpty()) {
+            Candidate c = toVisit.poll();
+            if (best.size() >= ef && c.distance > best.peek().distance) {
+                break;
+            }
+
+            int[][] nodeLinks = links.get(c.id);
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            for (int neighbour : nodeLinks[level]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+
+                double d = distance(query, neighbour);
+                if (best.size() < ef || d < best.peek().distance) {
+                    Candidate next = new Candidate(neighbour, d);
+                    toVisit.add(next);
+                    best.add(next);
+                    if (best.size() > ef) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Candidate::distance));
+        return result;
+    }
+
+    private void connect(int node, int newNeighbour, int level, int maxLinks) {
+        int[] current = links.get(node)[level];
+        int[] extended = new int[current.length + 1];
+        System.arraycopy(current, 0, extended, 0, current.length);
+        extended[current.length] = newNeighbour;
+
+        if (extended.length > maxLinks) {
+            float[] nodeVector = vector(node);
+            List<Candidate> candidates = new ArrayList<>(extended.length);
+            for (int neighbour : extended) {
+                candidates.add(new Candidate(neighbour, distance(nodeVector, neighbour)));
+            }
+            candidates.sort(Comparator.comparingDouble(Candidate::distance));
+            extended = closest(candidates, maxLinks);
+        }
+        links.get(node)[level] = extended;
+    }
+
+    private static int[] closest(List<Candidate> sortedCandidates, int count) {
+        int n = Math.min(count, sortedCandidates.size());
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = sortedCandidates.get(i).id;
+        }
+        return result;
+    }
+
+    private double distance(float[] query, int id) {
+        int base = id * dimensions * 2;
+        double dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += query[i] * toFloat(vectors.getShort(base + i * 2));
+        }
+        return 1 - dot;
+    }
+
+    static short toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xff) - 127 + 15;
+        int mantissa = bits & 0x7fffff;
+
+        if (exponent >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x800000;
+            int shift = 14 - exponent;
+            int half = mantissa >> shift;
+            if (((mantissa >> (shift - 1)) & 1) != 0) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+
+        int half = sign | (exponent << 10) | (mantissa >> 13);
+        if ((mantissa & 0x1000) != 0) {
+            half++;
+        }
+        return (short) half;
+    }
+
+    static float toFloat(short half) {
+        int bits = half & 0xffff;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+
+        if (exponent == 0) {
+            float subnormal = mantissa * 0x1p-24f;
+            return sign != 0 ? -subnormal : subnormal;
+        }
+        if (exponent == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    private record Candidate(int id, double distance) {}
+}
@@ -1,33 +1,129 @@
 package org.devbulchandani.backend.services;
 
-import org.devbulchandani.backend.models.LearningPlan;
-import org.devbulchandani.backend.models.Milestone;
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
+import org.devbulchandani.backend.dtos.MilestoneContextDto;
+import org.devbulchandani.backend.dtos.PlanContextDto;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+
+/**
+ * Renders the plan context used in prompts. Renderings are cached per plan and dropped when any
+ * replica publishes an invalidation for the plan.
+ *
+ * <p>An invalidation also bumps the plan's generation. The generation is read before the plan is
+ * loaded, and the rendering is only cached if it has not moved since, so data read before an
+ * invalidation is never cached after it. The plan is read with projections, which go to the
+ * database even when the request already holds the entity. Generations live in a fixed array
+ * indexed by plan id hash; a collision only skips caching once. The TTL covers invalidations lost
+ * in transport.
+ */
 @Service
 public class LearningContextService {
-    public String buildPlanContext(LearningPlan plan) {
+    private static final int GENERATION_SLOTS = 1024;
+
+    private final LongFunction<PlanSnapshot> loader;
+    private final Map<Long, Rendering> rendered;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_SLOTS);
+    private final Duration ttl;
+
+    @Autowired
+    public LearningContextService(
+            InvalidationBus invalidationBus,
+            LearningPlanRepository planRepo,
+            MilestoneRepository milestoneRepo,
+            @Value("${context-cache.max-plans}") int maxPlans,
+            @Value("${context-cache.ttl-minutes}") long ttlMinutes) {
+        this(invalidationBus, planId -> new PlanSnapshot(
+                planRepo.findContextById(planId).orElseThrow(() -> new RuntimeException("Learning plan not found")),
+                milestoneRepo.findContextByPlanId(planId)
+        ), maxPlans, ttlMinutes);
+    }
+
+    LearningContextService(InvalidationBus invalidationBus, LongFunction<PlanSnapshot> loader, int maxPlans, long ttlMinutes) {
+        this.loader = loader;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.rendered = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Rendering> eldest) {
+                return size() > maxPlans;
+            }
+        });
+        invalidationBus.subscribe(invalidation -> {
+            if (invalidation.kind() == Invalidation.Kind.PLAN) {
+                invalidate(invalidation.id());
+            }
+        });
+    }
+
+    public String buildPlanContext(long planId) {
+        long now = System.nanoTime();
+        Rendering cached = rendered.get(planId);
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.text;
+        }
+
+        int slot = slot(planId);
+        long generation = generations.get(slot);
+        String context = render(loader.apply(planId));
+        synchronized (rendered) {
+            if (generations.get(slot) == generation) {
+                rendered.put(planId, new Rendering(context, now + ttl.toNanos()));
+            }
+        }
+        return context;
+    }
+
+    // bump first, then remove: a render that read the old generation can no longer be put
+    private void invalidate(long planId) {
+        synchronized (rendered) {
+            generations.incrementAndGet(slot(planId));
+            rendered.remove(planId);
+        }
+    }
+
+    private static int slot(long planId) {
+        return Math.floorMod(Long.hashCode(planId), GENERATION_SLOTS);
+    }
+
+    private String render(PlanSnapshot snapshot) {
+        PlanContextDto plan = snapshot.plan();
 
         StringBuilder sb = new StringBuilder();
 
         sb.append("=== LEARNING PLAN CONTEXT ===\n");
-        sb.append("Project: ").append(plan.getProjectName()).append("\n");
-        sb.append("Description: ").append(plan.getProjectDescription()).append("\n");
-        sb.append("Duration: ").append(plan.getDurationDays()).append(" days\n");
-        sb.append("Skill Level: ").append(plan.getSkillLevel()).append("\n\n");
+        sb.append("Project: ").append(plan.projectName()).append("\n");
+        sb.append("Description: ").append(plan.projectDescription()).append("\n");
+        sb.append("Duration: ").append(plan.durationDays()).append(" days\n");
+        sb.append("Skill Level: ").append(plan.skillLevel()).append("\n\n");
 
         sb.append("Milestones so far:\n");
 
-        for (Milestone m : plan.getMilestones()) {
+        for (MilestoneContextDto m : snapshot.milestones()) {
             sb.append(String.format(
                     "M%d [%s]: %s -> %s\n",
-                    m.getSequenceNumber(),
-                    m.isCompleted() ? "DONE" : "PENDING",
-                    m.getTitle(),
-                    m.getDescription()
+                    m.sequenceNumber(),
+                    m.completed() ? "DONE" : "PENDING",
+                    m.title(),
+                    m.description()
             ));
         }
 
         return sb.toString();
     }
+
+    record PlanSnapshot(PlanContextDto plan, List<MilestoneContextDto> milestones) {}
+
+    private record Rendering(String text, long expiresAt) {}
 }
@@ -0,0 +1,152 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Builds mentor prompts as a long prefix that stays byte-identical for a plan (instructions,
+ * repository snapshot, plan context) followed by a short per-turn suffix. Gemini caches
+ * identical request prefixes on its side, so every turn after the first only pays for the
+ * suffix. The prefix of each plan is kept until the plan is invalidated, the repository moves to
+ * a new commit or the TTL runs out.
+ */
+@Service
+public class MentorPromptService {
+    static final String USER_QUESTION_HEADER = "=== USER QUESTION ===";
+    static final String REVIEW_TASK_HEADER = "=== REVIEW TASK ===";
+    private static final int MAX_SNAPSHOT_PATHS = 300;
+
+    private static final String INSTRUCTIONS_WITH_REPO = """
+            === MENTOR INSTRUCTIONS ===
+            - The user's project is the GitHub repository below; pass its URL as 'repoUrl' to every tool.
+            - The code most relevant to the request is retrieved at the end of this message; start from it.
+            - Use tools only if you need more code: search_code to find where code lives, then
+              list_repo_files and read_repo_file (local mirror, preferred), analyze_project,
+              get_project_structure, read_file or read_files.
+            - The file list below is the repository at the given commit, so you rarely need to list files.
+            - Answer in a Socratic way (ask guiding questions, do NOT give full code).
+            - Reference specific files and code you found in the repository.
+            """;
+
+    private static final String INSTRUCTIONS_WITHOUT_REPO = """
+            === MENTOR INSTRUCTIONS ===
+            - The user has NOT provided a GitHub repository URL yet.
+            - You can still provide general guidance and answer conceptual questions.
+            - Suggest that they add their repository URL in the settings for code-specific analysis.
+            - Answer in a Socratic way (ask guiding questions, do NOT give full code).
+            """;
+
+    private final RepositoryMirrorService mirrorService;
+    private final Duration ttl;
+    private final Map<Long, CachedPrefix> prefixes;
+
+    public MentorPromptService(
+            RepositoryMirrorService mirrorService,
+            InvalidationBus invalidationBus,
+            @Value("${prompt-prefix.ttl-minutes}") long ttlMinutes,
+            @Value("${context-cache.max-plans}") int maxPlans) {
+        this.mirrorService = mirrorService;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.prefixes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedPrefix> eldest) {
+                return size() > maxPlans;
+            }
+        });
+        invalidationBus.subscribe(invalidation -> {
+            if (invalidation.kind() == Invalidation.Kind.PLAN) {
+                prefixes.remove(invalidation.id());
+            }
+        });
+    }
+
+    public String chatPrompt(long planId, String repoUrl, Supplier<String> planContext, String question, String relevantCode) {
+        return prefix(planId, repoUrl, planContext) + """
+
+                %s
+                %s
+
+                %s
+                """.formatted(USER_QUESTION_HEADER, question, relevantCode);
+    }
+
+    public String reviewPrompt(long planId, String repoUrl, Supplier<String> planContext, String milestoneContext, String relevantCode) {
+        return prefix(planId, repoUrl, planContext) + """
+
+                %s
+                Decide whether the milestone below is COMPLETE. Inspect the code first: the most
+                relevant code is included below, read more with the tools only if needed.
+                If complete, start your answer with: COMPLETED and briefly explain why.
+                Otherwise, explain what is still missing (Socratically, no code).
+
+                %s
+
+                %s
+                """.formatted(REVIEW_TASK_HEADER, milestoneContext, relevantCode);
+    }
+
+    String prefix(long planId, String repoUrl, Supplier<String> planContext) {
+        String url = repoUrl == null || repoUrl.isBlank() ? null : repoUrl.trim();
+        String commitId = url == null ? null : headCommitOrNull(url);
+        long now = System.nanoTime();
+
+        CachedPrefix cached = prefixes.get(planId);
+        if (cached != null && cached.expiresAt - now > 0
+                && Objects.equals(cached.repoUrl, url) && Objects.equals(cached.commitId, commitId)) {
+            return cached.text;
+        }
+
+        String text = url == null
+                ? INSTRUCTIONS_WITHOUT_REPO + "\n" + planContext.get()
+                : INSTRUCTIONS_WITH_REPO + "\n" + repositorySnapshot(url, commitId) + "\n" + planContext.get();
+        prefixes.put(planId, new CachedPrefix(url, commitId, text, now + ttl.toNanos()));
+        return text;
+    }
+
+    private String repositorySnapshot(String repoUrl, String commitId) {
+        StringBuilder sb = new StringBuilder("=== GITHUB REPOSITORY ===\n");
+        sb.append("URL: ").append(repoUrl).append("\n");
+        if (commitId == null) {
+            return sb.append("(repository snapshot unavailable)\n").toString();
+        }
+
+        TreeSet<String> paths;
+        try {
+            paths = new TreeSet<>(mirrorService.sourceFiles(repoUrl).blobs().keySet());
+        } catch (RuntimeException e) {
+            return sb.append("(repository snapshot unavailable)\n").toString();
+        }
+
+        sb.append("Commit: ").append(commitId).append("\n");
+        sb.append("Source files (").append(Math.min(paths.size(), MAX_SNAPSHOT_PATHS))
+                .append(" of ").append(paths.size()).append("):\n");
+        int listed = 0;
+        for (String path : paths) {
+            if (listed++ == MAX_SNAPSHOT_PATHS) {
+                break;
+            }
+            sb.append(path).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private String headCommitOrNull(String repoUrl) {
+        try {
+            return mirrorService.headCommit(repoUrl);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private record CachedPrefix(String repoUrl, String commitId, String text, long expiresAt) {}
+}
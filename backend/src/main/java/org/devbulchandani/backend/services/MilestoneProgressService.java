@@ -0,0 +1,31 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class MilestoneProgressService {
+    private final MilestoneRepository milestoneRepo;
+    private final LearningPlanRepository planRepo;
+
+    public MilestoneProgressService(MilestoneRepository milestoneRepo, LearningPlanRepository planRepo) {
+        this.milestoneRepo = milestoneRepo;
+        this.planRepo = planRepo;
+    }
+
+    /**
+     * Stores the verification outcome of a milestone and keeps the plan's progress counters in
+     * step with it, both in one transaction.
+     */
+    @Transactional
+    public void recordVerification(long planId, long milestoneId, boolean completed) {
+        LocalDateTime now = LocalDateTime.now();
+        int flipped = milestoneRepo.updateCompleted(milestoneId, completed, now);
+        int delta = flipped == 0 ? 0 : (completed ? 1 : -1);
+        planRepo.recordVerification(planId, delta, now);
+    }
+}
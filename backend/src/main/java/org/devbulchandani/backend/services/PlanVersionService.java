@@ -0,0 +1,52 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.dtos.PlanVersion;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.utils.JwtUtil;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes strong ETags for plan representations from a single aggregate query over
+ * {@code updatedAt} and the milestone versions, so unchanged data can be answered with a 304
+ * without loading or serializing any entity. Milestone verification and repo attachment both
+ * bump {@code updatedAt}, which is all that changes these payloads.
+ */
+@Service
+public class PlanVersionService {
+    private final LearningPlanRepository planRepo;
+    private final JwtUtil jwtUtil;
+
+    public PlanVersionService(LearningPlanRepository planRepo, JwtUtil jwtUtil) {
+        this.planRepo = planRepo;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public String planEtag(long planId) {
+        return etag("plan", String.valueOf(planId), planRepo.findVersionById(planId));
+    }
+
+    public String planContextEtag(long planId) {
+        return etag("context", String.valueOf(planId), planRepo.findVersionById(planId));
+    }
+
+    public String myPlansEtag(String token) {
+        String email = jwtUtil.extractEmail(token);
+        return etag("my-plans", email, planRepo.findVersionByUserEmail(email));
+    }
+
+    private static String etag(String representation, String key, PlanVersion version) {
+        String source = representation + '|' + key + '|' + version.planCount() + '|' + version.milestoneCount()
+                + '|' + version.planUpdatedAt() + '|' + version.milestoneUpdatedAt();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
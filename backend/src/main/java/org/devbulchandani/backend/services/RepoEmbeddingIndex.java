@@ -0,0 +1,165 @@
+package org.devbulchandani.backend.services;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Embedding index over line-window chunks of one repository. Like {@link CodeSearchIndex}, files
+ * are tracked by git blob id so a new commit only embeds the chunks of files that changed. The
+ * number of chunks is capped, which bounds the off-heap vector storage per repository.
+ *
+ * <p>Only one thread may run {@link #update} at a time, but {@link #search} can run alongside
+ * it: embedding happens outside the monitor and each embedded batch is added under it, so a
+ * search sees the index as of the last finished batch.
+ */
+public class RepoEmbeddingIndex {
+    static final int LINES_PER_CHUNK = 40;
+    private static final int CHUNK_OVERLAP = 10;
+    private static final int MAX_CHUNK_CHARS = 2000;
+    private static final int EMBED_BATCH = 64;
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+
+    private final int dimensions;
+    private final int maxChunks;
+    private HnswIndex hnsw;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final Map<String, IndexedFile> files = new HashMap<>();
+    private volatile String commitId;
+
+    public RepoEmbeddingIndex(int dimensions, int maxChunks) {
+        this.dimensions = dimensions;
+        this.maxChunks = maxChunks;
+        this.hnsw = new HnswIndex(dimensions, maxChunks, M, EF_CONSTRUCTION);
+    }
+
+    public String commitId() {
+        return commitId;
+    }
+
+    /**
+     * Whether an update has finished at least once, i.e. the index covers some commit.
+     */
+    public boolean isReady() {
+        return commitId != null;
+    }
+
+    public void update(String commitId, Map<String, String> blobs, Function<String, String> reader, EmbeddingModel model) {
+        synchronized (this) {
+            for (String path : new ArrayList<>(files.keySet())) {
+                String blobId = blobs.get(path);
+                if (blobId == null || !blobId.equals(files.get(path).blobId)) {
+                    for (int node : files.remove(path).nodes) {
+                        hnsw.remove(node);
+                    }
+                }
+            }
+        }
+
+        List<Chunk> pending = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        Map<String, String> pendingBlobs = new HashMap<>();
+        int live = hnsw.size() - hnsw.removedCount();
+
+        for (Map.Entry<String, String> entry : blobs.entrySet()) {
+            String path = entry.getKey();
+            if (files.containsKey(path)) {
+                continue;
+            }
+            String content = reader.apply(path);
+            if (content == null) {
+                continue;
+            }
+
+            String[] lines = content.split("\r?\n", -1);
+            for (int start = 0; start < lines.length && live + pending.size() < maxChunks;
+                 start += LINES_PER_CHUNK - CHUNK_OVERLAP) {
+                int end = Math.min(lines.length, start + LINES_PER_CHUNK);
+                String text = path + "\n" + String.join("\n", List.of(lines).subList(start, end));
+                if (text.length() > MAX_CHUNK_CHARS) {
+                    text = text.substring(0, MAX_CHUNK_CHARS);
+                }
+                pending.add(new Chunk(path, entry.getValue(), start + 1, end));
+                segments.add(TextSegment.from(text));
+                if (end == lines.length) {
+                    break;
+                }
+            }
+            pendingBlobs.put(path, entry.getValue());
+        }
+
+        synchronized (this) {
+            if (hnsw.size() + pending.size() > maxChunks && hnsw.removedCount() > 0) {
+                compact();
+            }
+        }
+
+        for (int from = 0; from < segments.size(); from += EMBED_BATCH) {
+            int to = Math.min(segments.size(), from + EMBED_BATCH);
+            List<Embedding> embeddings = model.embedAll(segments.subList(from, to)).content();
+            synchronized (this) {
+                for (int i = from; i < to && !hnsw.isFull(); i++) {
+                    Chunk chunk = pending.get(i);
+                    int node = hnsw.add(normalized(embeddings.get(i - from).vector()));
+                    chunks.add(chunk);
+                    files.computeIfAbsent(chunk.path, p -> new IndexedFile(pendingBlobs.get(p), new ArrayList<>()))
+                            .nodes.add(node);
+                }
+            }
+        }
+
+        this.commitId = commitId;
+    }
+
+    public synchronized List<Chunk> search(float[] query, int k) {
+        List<Chunk> result = new ArrayList<>();
+        for (int node : hnsw.search(normalized(query), k, Math.max(k * 4, 50))) {
+            result.add(chunks.get(node));
+        }
+        return result;
+    }
+
+    // rebuilds the graph from the live vectors so tombstoned nodes stop taking capacity
+    private void compact() {
+        HnswIndex compacted = new HnswIndex(dimensions, maxChunks, M, EF_CONSTRUCTION);
+        List<Chunk> compactedChunks = new ArrayList<>();
+
+        for (IndexedFile file : files.values()) {
+            List<Integer> remapped = new ArrayList<>(file.nodes.size());
+            for (int node : file.nodes) {
+                remapped.add(compacted.add(hnsw.vector(node)));
+                compactedChunks.add(chunks.get(node));
+            }
+            file.nodes.clear();
+            file.nodes.addAll(remapped);
+        }
+
+        hnsw = compacted;
+        chunks.clear();
+        chunks.addAll(compactedChunks);
+    }
+
+    private float[] normalized(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] result = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            result[i] = norm == 0 ? 0 : (float) (vector[i] / norm);
+        }
+        return result;
+    }
+
+    public record Chunk(String path, String blobId, int startLine, int endLine) {}
+
+    private record IndexedFile(String blobId, List<Integer> nodes) {}
+}
@@ -0,0 +1,571 @@
+package org.devbulchandani.backend.services;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps shallow local clones of plan repositories so file and tree reads are served from disk
+ * instead of going through the remote repo-analyzer. Mirrors are refreshed on demand once they
+ * are older than the freshness window, and the least recently used ones are deleted when the
+ * total size goes over the configured budget.
+ *
+ * <p>Every read holds a lease on its mirror, and a leased mirror is never evicted. An evicted
+ * mirror is renamed out of the way under the map lock before it is deleted, so a new mirror for
+ * the same URL always starts from an empty directory.
+ *
+ * <p>When a fetch fails, reads keep being served from the mirror as it is and further fetches
+ * back off, from {@code FETCH_BACKOFF} doubling up to {@code MAX_FETCH_BACKOFF}. Only a
+ * repository that was never cloned makes reads fail.
+ */
+@Service
+public class RepositoryMirrorService {
+    private static final Logger log = LoggerFactory.getLogger(RepositoryMirrorService.class);
+    private static final Duration FETCH_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_FETCH_BACKOFF = Duration.ofMinutes(15);
+    private static final int MAX_LISTED_FILES = 5000;
+    private static final long MAP_THRESHOLD_BYTES = 64 * 1024;
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of(
+            "java", "kt", "kts", "scala", "groovy", "gradle", "xml", "properties", "yml", "yaml",
+            "js", "jsx", "ts", "tsx", "mjs", "cjs", "vue", "svelte", "html", "css", "scss",
+            "py", "rb", "go", "rs", "c", "h", "cpp", "hpp", "cs", "php", "swift", "dart",
+            "sql", "sh", "json", "toml", "md");
+    // repository URLs come from users and the model, so only public GitHub repositories are
+    // cloned; file://, ssh:// and other hosts would let a caller make the server read or fetch
+    // anything it can reach
+    private static final Pattern GITHUB_REPO =
+            Pattern.compile("https://github\\.com/(?!\\.)[A-Za-z0-9_.-]+/(?!\\.)[A-Za-z0-9_.-]+");
+    private static final String EVICTED_SUFFIX = ".evicted-";
+    // names of the directories this service creates: a mirror, or one waiting to be deleted
+    private static final Pattern MIRROR_DIR = Pattern.compile("[0-9a-f]{32}(\\" + EVICTED_SUFFIX + "\\d+)?");
+
+    private final Path root;
+    private final long maxBytes;
+    private final Duration freshness;
+    private final long maxFileBytes;
+    private final Pattern allowedUrls;
+    private final AtomicLong evictions = new AtomicLong();
+
+    // access-ordered, so iteration starts at the least recently used mirror
+    private final LinkedHashMap<String, Mirror> mirrors = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public RepositoryMirrorService(
+            @Value("${repo.mirror.root}") String root,
+            @Value("${repo.mirror.max-bytes}") long maxBytes,
+            @Value("${repo.mirror.freshness-seconds}") long freshnessSeconds,
+            @Value("${repo.mirror.max-file-bytes}") long maxFileBytes) {
+        this(root, maxBytes, freshnessSeconds, maxFileBytes, GITHUB_REPO);
+    }
+
+    RepositoryMirrorService(String root, long maxBytes, long freshnessSeconds, long maxFileBytes, Pattern allowedUrls) {
+        this.allowedUrls = allowedUrls;
+        this.root = Paths.get(root).toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.freshness = Duration.ofSeconds(freshnessSeconds);
+        this.maxFileBytes = maxFileBytes;
+
+        try {
+            Files.createDirectories(this.root);
+            deleteLeftoverMirrors();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not prepare mirror root " + this.root, e);
+        }
+    }
+
+    /**
+     * Mirrors left over from a previous run are not tracked, so they are deleted. Only
+     * directories named like the ones this service creates are touched; anything else an
+     * operator keeps under the root stays.
+     */
+    private void deleteLeftoverMirrors() throws IOException {
+        try (Stream<Path> entries = Files.list(root)) {
+            entries.filter(p -> MIRROR_DIR.matcher(p.getFileName().toString()).matches())
+                    .filter(p -> Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS))
+                    .forEach(RepositoryMirrorService::deleteRecursively);
+        }
+    }
+
+    /**
+     * Returns the working tree of the mirror for {@code repoUrl}, cloning or fetching it first.
+     * The directory is not leased once this returns, so it is only meant for tests.
+     */
+    Path checkout(String repoUrl) {
+        return withMirror(repoUrl, dir -> dir);
+    }
+
+    /**
+     * Runs {@code read} against the working tree of the mirror for {@code repoUrl}, cloning or
+     * fetching it first when it is missing or older than the freshness window. The mirror is
+     * leased for the duration of the read, so eviction cannot delete it underneath.
+     */
+    <T> T withMirror(String repoUrl, Function<Path, T> read) {
+        String url = requireAllowed(repoUrl);
+        Mirror mirror;
+        synchronized (mirrors) {
+            mirror = mirrors.computeIfAbsent(url, u -> new Mirror(u, root.resolve(dirName(u))));
+            mirror.leases++;
+        }
+
+        try {
+            synchronized (mirror) {
+                if (mirror.fetchedAt == null || mirror.fetchedAt.plus(freshness).isBefore(Instant.now())) {
+                    refresh(mirror);
+                }
+            }
+            evictOver();
+            return read.apply(mirror.dir);
+        } finally {
+            synchronized (mirrors) {
+                mirror.leases--;
+            }
+        }
+    }
+
+    /**
+     * Returns the normalized form of {@code repoUrl}, or throws if it is not a repository this
+     * service mirrors. Callers that key their own state by URL check it before storing anything.
+     */
+    public String requireAllowed(String repoUrl) {
+        String url = normalize(repoUrl);
+        if (!allowedUrls.matcher(url).matches()) {
+            throw new RuntimeException("Only https://github.com/<owner>/<repo> repositories can be read: " + url);
+        }
+        return url;
+    }
+
+    /**
+     * Returns the commit id at the mirror's HEAD, or {@code null} for an empty repository.
+     */
+    public String headCommit(String repoUrl) {
+        return withMirror(repoUrl, dir -> {
+            try (Git git = Git.open(dir.toFile())) {
+                ObjectId head = git.getRepository().resolve("HEAD");
+                return head == null ? null : head.name();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read HEAD of " + repoUrl, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the commit id at HEAD of the mirror as it is on disk, without cloning or fetching.
+     * Returns {@code null} when there is no fresh mirror to ask: none was cloned yet, or a push
+     * marked it stale.
+     */
+    public String cachedHeadCommit(String repoUrl) {
+        String url = requireAllowed(repoUrl);
+        Mirror mirror;
+        synchronized (mirrors) {
+            mirror = mirrors.get(url);
+            if (mirror == null || mirror.fetchedAt == null) {
+                return null;
+            }
+            mirror.leases++;
+        }
+
+        try (Git git = Git.open(mirror.dir.toFile())) {
+            ObjectId head = git.getRepository().resolve("HEAD");
+            return head == null ? null : head.name();
+        } catch (IOException e) {
+            return null;
+        } finally {
+            synchronized (mirrors) {
+                mirror.leases--;
+            }
+        }
+    }
+
+    /**
+     * Marks the mirror as stale so the next read fetches, e.g. after a push notification.
+     */
+    public void invalidate(String repoUrl) {
+        Mirror mirror;
+        synchronized (mirrors) {
+            mirror = mirrors.get(normalize(repoUrl));
+        }
+        if (mirror != null) {
+            mirror.fetchedAt = null;
+        }
+    }
+
+    /**
+     * Fetches the mirror right away, whatever its age, and fails unless HEAD is then at
+     * {@code commitId}. Used when a push is known to exist but this replica may not have seen it.
+     */
+    public void fetchCommit(String repoUrl, String commitId) {
+        invalidate(repoUrl);
+        String head = headCommit(repoUrl);
+        if (!commitId.equals(head)) {
+            throw new RuntimeException("Mirror of " + repoUrl + " is at " + head + ", not at pushed commit " + commitId);
+        }
+    }
+
+    public String readFile(String repoUrl, String relativePath) {
+        return withMirror(repoUrl, dir -> read(resolve(dir, relativePath), relativePath));
+    }
+
+    /**
+     * Reads a blob by id from the mirror's object store rather than its working tree, so an
+     * index built at one commit keeps reading the content it indexed after the mirror moves on.
+     */
+    public String readBlob(String repoUrl, String blobId) {
+        return withMirror(repoUrl, dir -> {
+            try (Git git = Git.open(dir.toFile())) {
+                return readBlob(git.getRepository(), blobId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open mirror of " + repoUrl, e);
+            }
+        });
+    }
+
+    private String readBlob(Repository repository, String blobId) {
+        try {
+            ObjectLoader loader = repository.open(ObjectId.fromString(blobId), Constants.OBJ_BLOB);
+            if (loader.getSize() > maxFileBytes) {
+                throw new RuntimeException("Blob too large to read (" + loader.getSize() + " bytes): " + blobId);
+            }
+            return new String(loader.getCachedBytes((int) loader.getSize()), StandardCharsets.UTF_8);
+        } catch (MissingObjectException e) {
+            throw new RuntimeException("Blob not found: " + blobId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + blobId, e);
+        }
+    }
+
+    private String read(Path file, String relativePath) {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            throw new RuntimeException("File not found: " + relativePath);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+            long size = channel.size();
+            if (size > maxFileBytes) {
+                throw new RuntimeException("File too large to read (" + size + " bytes): " + relativePath);
+            }
+            if (size < MAP_THRESHOLD_BYTES) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the whole file is in the buffer
+                }
+                return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + relativePath, e);
+        }
+    }
+
+    public List<String> listFiles(String repoUrl) {
+        List<String> files = withMirror(repoUrl, dir -> {
+            List<String> listed = new ArrayList<>();
+            try (Stream<Path> walk = Files.walk(dir)) {
+                Iterator<Path> it = walk.filter(p -> Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS)).iterator();
+                while (it.hasNext() && listed.size() < MAX_LISTED_FILES) {
+                    Path rel = dir.relativize(it.next());
+                    if (isHidden(rel)) {
+                        continue;
+                    }
+                    listed.add(rel.toString().replace('\\', '/'));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to list " + repoUrl, e);
+            }
+            return listed;
+        });
+
+        files.sort(Comparator.naturalOrder());
+        return files;
+    }
+
+    /**
+     * Lists the source files at the mirror's HEAD with their blob ids. Indexes compare blob ids
+     * between snapshots so only files that changed in a new commit have to be re-read.
+     */
+    public RepositorySnapshot sourceFiles(String repoUrl) {
+        return withMirror(repoUrl, dir -> {
+            try (Git git = Git.open(dir.toFile())) {
+                return snapshot(git.getRepository(), repoUrl);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open mirror of " + repoUrl, e);
+            }
+        });
+    }
+
+    /**
+     * Runs {@code read} with the {@link #sourceFiles} snapshot and a reader from blob id to
+     * content, under a single lease and a single open repository. A refresh by another reader
+     * only adds objects, so every blob of the snapshot stays readable until {@code read} returns.
+     */
+    public <T> T withSourceFiles(String repoUrl, BiFunction<RepositorySnapshot, Function<String, String>, T> read) {
+        return withMirror(repoUrl, dir -> {
+            try (Git git = Git.open(dir.toFile())) {
+                Repository repository = git.getRepository();
+                return read.apply(snapshot(repository, repoUrl), blobId -> readBlob(repository, blobId));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open mirror of " + repoUrl, e);
+            }
+        });
+    }
+
+    private static RepositorySnapshot snapshot(Repository repository, String repoUrl) {
+        Map<String, String> blobs = new LinkedHashMap<>();
+
+        try {
+            ObjectId head = repository.resolve("HEAD");
+            ObjectId tree = repository.resolve("HEAD^{tree}");
+            if (head == null || tree == null) {
+                return new RepositorySnapshot(null, blobs);
+            }
+
+            try (TreeWalk walk = new TreeWalk(repository)) {
+                walk.addTree(tree);
+                walk.setRecursive(true);
+                while (walk.next()) {
+                    String path = walk.getPathString();
+                    if (isSourceFile(path)) {
+                        blobs.put(path, walk.getObjectId(0).name());
+                    }
+                }
+            }
+            return new RepositorySnapshot(head.name(), blobs);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tree of " + repoUrl, e);
+        }
+    }
+
+    private static boolean isSourceFile(String path) {
+        if (isHidden(Paths.get(path)) || path.endsWith("-lock.json")) {
+            return false;
+        }
+        int dot = path.lastIndexOf('.');
+        return dot >= 0 && SOURCE_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // called under the mirror's monitor
+    private void refresh(Mirror mirror) {
+        boolean cloned = Files.isDirectory(mirror.dir.resolve(".git"));
+        Instant now = Instant.now();
+        if (mirror.retryAt != null && now.isBefore(mirror.retryAt)) {
+            if (cloned) {
+                return;
+            }
+            throw new RuntimeException("Failed to mirror repository " + mirror.url + ", retrying after " + mirror.retryAt);
+        }
+
+        try {
+            if (cloned) {
+                try (Git git = Git.open(mirror.dir.toFile())) {
+                    String branch = git.getRepository().getBranch();
+                    git.fetch().setRemote("origin").setDepth(1).call();
+                    git.reset()
+                            .setMode(ResetCommand.ResetType.HARD)
+                            .setRef("origin/" + branch)
+                            .call();
+                }
+            } else {
+                deleteRecursively(mirror.dir);
+                Git.cloneRepository()
+                        .setURI(mirror.url)
+                        .setDirectory(mirror.dir.toFile())
+                        .setDepth(1)
+                        .setCloneAllBranches(false)
+                        .call()
+                        .close();
+            }
+        } catch (Exception e) {
+            mirror.failures++;
+            mirror.retryAt = now.plus(fetchBackoff(mirror.failures));
+            if (!cloned) {
+                deleteRecursively(mirror.dir);
+                throw new RuntimeException("Failed to mirror repository " + mirror.url, e);
+            }
+            log.warn("Failed to fetch {}, serving the mirror as it is until {}", mirror.url, mirror.retryAt, e);
+            return;
+        }
+
+        mirror.failures = 0;
+        mirror.retryAt = null;
+        mirror.fetchedAt = Instant.now();
+        mirror.sizeBytes = sizeOf(mirror.dir);
+    }
+
+    private static Duration fetchBackoff(int failures) {
+        Duration backoff = FETCH_BACKOFF.multipliedBy(1L << Math.min(failures - 1, 10));
+        return backoff.compareTo(MAX_FETCH_BACKOFF) > 0 ? MAX_FETCH_BACKOFF : backoff;
+    }
+
+    private void evictOver() {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (mirrors) {
+            long total = mirrors.values().stream().mapToLong(m -> m.sizeBytes).sum();
+            Iterator<Map.Entry<String, Mirror>> it = mirrors.entrySet().iterator();
+            while (total > maxBytes && it.hasNext()) {
+                Mirror candidate = it.next().getValue();
+                if (candidate.leases > 0) {
+                    continue;
+                }
+                it.remove();
+                total -= candidate.sizeBytes;
+                Path aside = moveAside(candidate.dir);
+                if (aside != null) {
+                    evicted.add(aside);
+                }
+            }
+        }
+
+        for (Path dir : evicted) {
+            deleteRecursively(dir);
+        }
+    }
+
+    /**
+     * Renames an evicted mirror so its URL can be cloned again right away while the old tree is
+     * deleted outside the lock. Falls back to deleting in place, still under the lock, if the
+     * rename fails; returns {@code null} when nothing is left to delete.
+     */
+    private Path moveAside(Path dir) {
+        if (!Files.exists(dir)) {
+            return null;
+        }
+        Path aside = dir.resolveSibling(dir.getFileName() + EVICTED_SUFFIX + evictions.incrementAndGet());
+        try {
+            return Files.move(dir, aside, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteRecursively(dir);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves {@code relativePath} inside the mirror with every symlink followed, so a link
+     * committed to the repository cannot point a read at a file elsewhere on the host.
+     */
+    private Path resolve(Path dir, String relativePath) {
+        Path file;
+        Path realDir;
+        try {
+            realDir = dir.toRealPath();
+            file = dir.resolve(relativePath.startsWith("/") ? relativePath.substring(1) : relativePath)
+                    .toRealPath();
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("File not found: " + relativePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to resolve " + relativePath, e);
+        }
+        if (!file.startsWith(realDir) || realDir.relativize(file).startsWith(".git")) {
+            throw new RuntimeException("Path is outside the repository: " + relativePath);
+        }
+        return file;
+    }
+
+    private static boolean isHidden(Path rel) {
+        for (Path part : rel) {
+            String name = part.toString();
+            if (name.startsWith(".") || name.equals("node_modules")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String normalize(String repoUrl) {
+        String url = repoUrl.trim();
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+
+    private static String dirName(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long sizeOf(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(p -> Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS))
+                    .mapToLong(p -> p.toFile().length())
+                    .sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + dir, e);
+        }
+    }
+
+    public record RepositorySnapshot(String commitId, Map<String, String> blobs) {}
+
+    private static final class Mirror {
+        private final String url;
+        private final Path dir;
+        private volatile Instant fetchedAt;
+        private volatile long sizeBytes;
+        // guarded by the mirror itself
+        private int failures;
+        private Instant retryAt;
+        // guarded by the mirrors map
+        private int leases;
+
+        private Mirror(String url, Path dir) {
+            this.url = url;
+            this.dir = dir;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.devbulchandani.backend.services;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Finds the source chunks of a repository most related to a question, so they can be put in the
+ * prompt up front instead of the model discovering them through tool calls.
+ *
+ * <p>Embedding a repository takes a while, so indexes are built and refreshed on a background
+ * thread, started by a push or by the first question about a repository. Until a repository's
+ * first build finishes, questions are answered from the trigram {@link CodeSearchService}, which
+ * the same thread builds first; a question that comes before either is ready gets no code.
+ *
+ * <p>Chunks carry the blob id they were indexed from and their lines are read from that blob,
+ * so a mirror that has moved to a newer commit cannot shift them onto the wrong code.
+ */
+@Service
+public class RetrievalService {
+    private static final Logger log = LoggerFactory.getLogger(RetrievalService.class);
+    private static final int FALLBACK_CONTEXT_LINES = 10;
+
+    private final RepositoryMirrorService mirrorService;
+    private final CodeSearchService codeSearchService;
+    private final EmbeddingModel embeddingModel;
+    private final boolean enabled;
+    private final int topK;
+    private final int maxChunksPerRepo;
+    private final Map<String, RepoEmbeddingIndex> indexes;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "retrieval-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RetrievalService(
+            RepositoryMirrorService mirrorService,
+            CodeSearchService codeSearchService,
+            @Lazy EmbeddingModel embeddingModel,
+            @Value("${retrieval.enabled}") boolean enabled,
+            @Value("${retrieval.top-k}") int topK,
+            @Value("${retrieval.max-chunks-per-repo}") int maxChunksPerRepo,
+            @Value("${retrieval.max-repos}") int maxRepos) {
+        this.mirrorService = mirrorService;
+        this.codeSearchService = codeSearchService;
+        this.embeddingModel = embeddingModel;
+        this.enabled = enabled;
+        this.topK = topK;
+        this.maxChunksPerRepo = maxChunksPerRepo;
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RepoEmbeddingIndex> eldest) {
+                return size() > maxRepos;
+            }
+        });
+    }
+
+    /**
+     * Returns a prompt section with the chunks most relevant to {@code query}, or an empty string
+     * when retrieval is disabled, there is no repository, or the lookup fails.
+     */
+    public String relevantCode(String repoUrl, String query) {
+        if (!enabled || repoUrl == null || repoUrl.isBlank() || query == null || query.isBlank()) {
+            return "";
+        }
+
+        try {
+            String url = RepositoryMirrorService.normalize(repoUrl);
+            List<RepoEmbeddingIndex.Chunk> chunks = search(url, query);
+            if (chunks.isEmpty()) {
+                return "";
+            }
+
+            StringBuilder sb = new StringBuilder("=== RELEVANT CODE (retrieved from the repository) ===\n");
+            for (RepoEmbeddingIndex.Chunk chunk : chunks) {
+                String[] lines = mirrorService.readBlob(url, chunk.blobId()).split("\r?\n", -1);
+                int end = Math.min(chunk.endLine(), lines.length);
+                sb.append("--- ").append(chunk.path())
+                        .append(" (lines ").append(chunk.startLine()).append('-').append(end).append(") ---\n");
+                for (int i = chunk.startLine() - 1; i < end; i++) {
+                    sb.append(lines[i]).append('\n');
+                }
+            }
+            return sb.toString();
+        } catch (RuntimeException e) {
+            log.warn("Retrieval failed for {}: {}", repoUrl, e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Brings the embedding index of {@code repoUrl} up to the mirror's HEAD on the background
+     * thread. Does nothing when a refresh of that repository is already queued or running.
+     */
+    public void refreshAsync(String repoUrl) {
+        if (!enabled || repoUrl == null || repoUrl.isBlank()) {
+            return;
+        }
+        String url = RepositoryMirrorService.normalize(repoUrl);
+        if (!refreshing.add(url)) {
+            return;
+        }
+        indexer.execute(() -> {
+            try {
+                refresh(url);
+            } catch (RuntimeException e) {
+                log.warn("Indexing failed for {}: {}", url, e.getMessage());
+            } finally {
+                refreshing.remove(url);
+            }
+        });
+    }
+
+    private List<RepoEmbeddingIndex.Chunk> search(String url, String query) {
+        refreshAsync(url);
+
+        RepoEmbeddingIndex index = indexes.get(url);
+        if (index == null || !index.isReady()) {
+            return trigramChunks(url, query);
+        }
+        float[] vector = embeddingModel.embed(query).content().vector();
+        return index.search(vector, topK);
+    }
+
+    private void refresh(String url) {
+        RepoEmbeddingIndex index = indexes.computeIfAbsent(
+                url, u -> new RepoEmbeddingIndex(embeddingModel.dimension(), maxChunksPerRepo));
+        if (!index.isReady()) {
+            codeSearchService.refresh(url);
+        }
+        RepositoryMirrorService.RepositorySnapshot snapshot = mirrorService.sourceFiles(url);
+        if (!index.isReady() || !Objects.equals(snapshot.commitId(), index.commitId())) {
+            Map<String, String> blobs = snapshot.blobs();
+            index.update(snapshot.commitId(), blobs, path -> readOrSkip(url, blobs.get(path)), embeddingModel);
+        }
+    }
+
+    // the lines around the best trigram matches, one chunk per distinct file
+    private List<RepoEmbeddingIndex.Chunk> trigramChunks(String url, String query) {
+        List<RepoEmbeddingIndex.Chunk> chunks = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (CodeSearchIndex.SearchHit hit : codeSearchService.searchIfReady(url, query, topK * 4)) {
+            if (seen.add(hit.path())) {
+                chunks.add(new RepoEmbeddingIndex.Chunk(hit.path(), hit.blobId(),
+                        Math.max(1, hit.line() - FALLBACK_CONTEXT_LINES), hit.line() + FALLBACK_CONTEXT_LINES));
+                if (chunks.size() == topK) {
+                    break;
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private String readOrSkip(String repoUrl, String blobId) {
+        try {
+            String content = mirrorService.readBlob(repoUrl, blobId);
+            return content.indexOf('\0') >= 0 ? null : content;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+}
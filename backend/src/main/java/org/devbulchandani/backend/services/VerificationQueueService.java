@@ -0,0 +1,180 @@
+package org.devbulchandani.backend.services;
+
+import jakarta.annotation.PreDestroy;
+import org.devbulchandani.backend.dtos.GithubPushEvent;
+import org.devbulchandani.backend.models.LearningPlan;
+import org.devbulchandani.backend.models.Milestone;
+import org.devbulchandani.backend.models.VerificationJob;
+import org.devbulchandani.backend.models.VerificationJobStatus;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.devbulchandani.backend.repositories.VerificationJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent queue of milestone verifications triggered by repository pushes. A push schedules
+ * the plan's current pending milestone after a debounce delay, and further pushes inside that
+ * window only push the delay back, so a burst of commits costs one review. A unique key keeps
+ * one pending job per milestone even when pushes race. Due jobs are claimed with a conditional
+ * update (safe with several replicas) and run on a bounded worker pool, after the mirror has
+ * been fetched up to the pushed commit; the stored result is what
+ * {@link VerificationService#verifyMilestone} answers with later.
+ */
+@Service
+public class VerificationQueueService {
+    private static final Logger log = LoggerFactory.getLogger(VerificationQueueService.class);
+    private static final Duration STALE_RUNNING = Duration.ofMinutes(15);
+    private static final String SUPERSEDED = "Superseded by a newer push";
+
+    private final VerificationJobRepository jobRepo;
+    private final LearningPlanRepository planRepo;
+    private final MilestoneRepository milestoneRepo;
+    private final VerificationService verificationService;
+    private final RepositoryMirrorService mirrorService;
+    private final RetrievalService retrievalService;
+    private final Duration debounce;
+    private final int maxAttempts;
+    private final int workerCount;
+    private final ThreadPoolExecutor workers;
+
+    public VerificationQueueService(
+            VerificationJobRepository jobRepo,
+            LearningPlanRepository planRepo,
+            MilestoneRepository milestoneRepo,
+            VerificationService verificationService,
+            RepositoryMirrorService mirrorService,
+            RetrievalService retrievalService,
+            @Value("${verification.queue.debounce-seconds}") long debounceSeconds,
+            @Value("${verification.queue.max-attempts}") int maxAttempts,
+            @Value("${verification.queue.workers}") int workerCount) {
+        this.jobRepo = jobRepo;
+        this.planRepo = planRepo;
+        this.milestoneRepo = milestoneRepo;
+        this.verificationService = verificationService;
+        this.mirrorService = mirrorService;
+        this.retrievalService = retrievalService;
+        this.debounce = Duration.ofSeconds(debounceSeconds);
+        this.maxAttempts = maxAttempts;
+        this.workerCount = workerCount;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Queues (or re-debounces) verification of the current pending milestone of every plan
+     * attached to the pushed repository. Returns the number of milestones queued.
+     */
+    @Transactional
+    public int enqueuePush(GithubPushEvent event) {
+        List<LearningPlan> plans = planRepo.findByGithubUrlIn(event.repoUrlVariants());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime runAfter = now.plus(debounce);
+        int queued = 0;
+
+        for (LearningPlan plan : plans) {
+            mirrorService.invalidate(plan.getGithubUrl());
+            // re-embed the pushed commit now, so the next question does not find a stale index
+            retrievalService.refreshAsync(plan.getGithubUrl());
+
+            Optional<Milestone> pending =
+                    milestoneRepo.findFirstByLearningPlan_IdAndCompletedFalseOrderBySequenceNumberAsc(plan.getId());
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            jobRepo.upsertPending(pending.get().getId(), plan.getGithubUrl(), event.after(), runAfter, now);
+            queued++;
+        }
+        return queued;
+    }
+
+    @Scheduled(initialDelayString = "${verification.queue.initial-delay-ms}",
+            fixedDelayString = "${verification.queue.poll-interval-ms}")
+    public void dispatchDueJobs() {
+        int free = workerCount - workers.getActiveCount() - workers.getQueue().size();
+        if (free <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // puts back jobs whose worker died mid-run
+        for (VerificationJob stale : jobRepo.findByStatusAndUpdatedAtBefore(VerificationJobStatus.RUNNING, now.minus(STALE_RUNNING))) {
+            requeue(stale.getId(), now, now);
+        }
+
+        List<VerificationJob> due = jobRepo.findByStatusAndRunAfterLessThanEqualOrderByRunAfterAsc(
+                VerificationJobStatus.PENDING, now, PageRequest.of(0, free));
+        for (VerificationJob job : due) {
+            if (jobRepo.claim(job.getId(), now, VerificationJobStatus.PENDING, VerificationJobStatus.RUNNING) == 1) {
+                workers.execute(() -> run(job));
+            }
+        }
+    }
+
+    private void run(VerificationJob claimed) {
+        long jobId = claimed.getId();
+        VerificationService.Outcome outcome = null;
+        String error = null;
+        try {
+            // the push may have reached this replica before its mirror saw the commit, so fetch
+            // now instead of trusting the freshness window
+            if (claimed.getPushedCommit() != null) {
+                mirrorService.fetchCommit(claimed.getRepoUrl(), claimed.getPushedCommit());
+            }
+            outcome = verificationService.runVerification(claimed.getMilestoneId());
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.warn("Verification job {} failed: {}", jobId, error);
+        }
+
+        VerificationJob job = jobRepo.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (outcome != null) {
+            job.setStatus(VerificationJobStatus.DONE);
+            job.setCommitId(outcome.commitId());
+            job.setCompleted(outcome.completed());
+            job.setFeedback(outcome.feedback());
+            job.setFinishedAt(now);
+        } else if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(VerificationJobStatus.FAILED);
+            job.setFeedback(error);
+            job.setFinishedAt(now);
+        } else {
+            requeue(jobId, now.plus(debounce.multipliedBy(job.getAttempts())), now);
+            return;
+        }
+        jobRepo.save(job);
+    }
+
+    // a newer push may already have queued the milestone again, then that job replaces this one
+    private void requeue(long jobId, LocalDateTime runAfter, LocalDateTime now) {
+        try {
+            jobRepo.requeue(jobId, runAfter, now, VerificationJobStatus.PENDING, VerificationJobStatus.RUNNING);
+        } catch (DataIntegrityViolationException e) {
+            jobRepo.fail(jobId, SUPERSEDED, now, VerificationJobStatus.RUNNING, VerificationJobStatus.FAILED);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
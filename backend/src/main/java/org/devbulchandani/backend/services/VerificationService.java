@@ -1,11 +1,22 @@
 package org.devbulchandani.backend.services;
 
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
 import org.devbulchandani.backend.dtos.MentorBot;
 import org.devbulchandani.backend.models.LearningPlan;
 import org.devbulchandani.backend.models.Milestone;
+import org.devbulchandani.backend.models.VerificationJob;
+import org.devbulchandani.backend.models.VerificationJobStatus;
 import org.devbulchandani.backend.repositories.LearningPlanRepository;
 import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.devbulchandani.backend.repositories.VerificationJobRepository;
+import org.devbulchandani.backend.usage.UsageContext;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Service
 public class VerificationService {
@@ -14,59 +25,153 @@ public class VerificationService {
     private final LearningPlanRepository planRepo;
     private final MilestoneContextService milestoneContext;
     private final LearningContextService planContext;
+    private final RetrievalService retrievalService;
+    private final MilestoneProgressService progressService;
+    private final VerificationJobRepository jobRepo;
+    private final RepositoryMirrorService mirrorService;
+    private final InvalidationBus invalidationBus;
+    private final MentorPromptService mentorPrompts;
+    private final TransactionTemplate readOnlyTx;
 
-    public VerificationService(MentorBot mentorBot, MilestoneRepository milestoneRepo, LearningPlanRepository planRepo, MilestoneContextService milestoneContext, LearningContextService planContext) {
+    public VerificationService(MentorBot mentorBot, MilestoneRepository milestoneRepo, LearningPlanRepository planRepo, MilestoneContextService milestoneContext, LearningContextService planContext, RetrievalService retrievalService, MilestoneProgressService progressService, VerificationJobRepository jobRepo, RepositoryMirrorService mirrorService, InvalidationBus invalidationBus, MentorPromptService mentorPrompts, PlatformTransactionManager txManager) {
         this.mentorBot = mentorBot;
         this.milestoneRepo = milestoneRepo;
         this.planRepo = planRepo;
         this.milestoneContext = milestoneContext;
         this.planContext = planContext;
+        this.retrievalService = retrievalService;
+        this.progressService = progressService;
+        this.jobRepo = jobRepo;
+        this.mirrorService = mirrorService;
+        this.invalidationBus = invalidationBus;
+        this.mentorPrompts = mentorPrompts;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
+    /**
+     * Answers from a precomputed result when one exists for the repository's current commit
+     * (see {@link VerificationQueueService}), otherwise runs the review now and keeps its result
+     * for the same commit.
+     *
+     * <p>The current commit is taken from the mirror as it is, never fetched on the request. A
+     * push the queue has not reviewed yet leaves a pending job; no precomputed result can be for
+     * that push, and the job keeps the result for its commit once it runs.
+     */
     public String verifyMilestone(Long milestoneId) {
-        Milestone m = milestoneRepo.findById(milestoneId)
-                .orElseThrow();
-
-        LearningPlan plan = m.getLearningPlan();
-        String repoUrl = plan.getGithubUrl();
-
-        String prompt = """
-                You are reviewing the user's progress.
-                
-                GITHUB REPO:
-                %s
-                
-                IMPORTANT INSTRUCTION:
-                Before judging, you MAY use MCP tools to:
-                - get_project_structure(...)
-                - read_file(...)
-                - read_files(...)
-                
-                
-                Only after inspecting the code, decide whether this milestone is COMPLETE.
-                
-                === LEARNING PLAN ===
-                %s
-                
-                === CURRENT MILESTONE ===
-                %s
-                
-                If complete, start your answer with: COMPLETED and briefly explain why.
-                Otherwise, explain what is still missing (Socratically, no code).
-                """
-                .formatted(
-                        repoUrl,
-                        planContext.buildPlanContext(plan),
-                        milestoneContext.buildMilestoneContext(m)
-                );
-
-
-        String aiResponse = mentorBot.chat(prompt);
+        Target target = loadTarget(milestoneId);
+        boolean pushPending = jobRepo.findFirstByMilestoneIdAndStatus(milestoneId, VerificationJobStatus.PENDING)
+                .isPresent();
+        String commitId = pushPending ? null : cachedCommit(target.repoUrl());
+
+        if (commitId != null) {
+            Optional<VerificationJob> precomputed =
+                    jobRepo.findFirstByMilestoneIdAndStatusOrderByFinishedAtDesc(milestoneId, VerificationJobStatus.DONE);
+            if (precomputed.isPresent() && commitId.equals(precomputed.get().getCommitId())) {
+                return precomputed.get().getFeedback();
+            }
+        }
+
+        String feedback = review(target);
+        if (commitId != null) {
+            LocalDateTime now = LocalDateTime.now();
+            jobRepo.save(VerificationJob.builder()
+                    .milestoneId(milestoneId)
+                    .repoUrl(target.repoUrl())
+                    .commitId(commitId)
+                    .status(VerificationJobStatus.DONE)
+                    .runAfter(now)
+                    .completed(feedback.contains("COMPLETED"))
+                    .feedback(feedback)
+                    .finishedAt(now)
+                    .build());
+        }
+        return feedback;
+    }
+
+    /**
+     * Runs the review for a queued job and reports which commit it looked at.
+     */
+    public Outcome runVerification(long milestoneId) {
+        Target target = loadTarget(milestoneId);
+        String commitId = currentCommit(target.repoUrl());
+        String feedback = review(target);
+        return new Outcome(commitId, feedback, feedback.contains("COMPLETED"));
+    }
+
+    private String review(Target target) {
+        String relevantCode = retrievalService.relevantCode(target.repoUrl(), target.retrievalQuery());
+
+        String prompt = mentorPrompts.reviewPrompt(
+                target.planId(),
+                target.repoUrl(),
+                target::planContext,
+                target.milestoneContext(),
+                relevantCode
+        );
+
+        String aiResponse;
+        try (UsageContext.Scope usage = UsageContext.open(target.userId(), target.planId(), UsageContext.VERIFY)) {
+            aiResponse = mentorBot.chat(prompt);
+        }
 
         boolean completed = aiResponse.contains("COMPLETED");
-        m.setCompleted(completed);
-        milestoneRepo.save(m);
+        progressService.recordVerification(target.planId(), target.milestoneId(), completed);
+        invalidationBus.publish(Invalidation.plan(target.planId()));
 
         return aiResponse;
     }
+
+    // reads everything the prompt needs in a short transaction, the model call runs outside it
+    private Target loadTarget(long milestoneId) {
+        return readOnlyTx.execute(status -> {
+            Milestone m = milestoneRepo.findById(milestoneId)
+                    .orElseThrow(() -> new RuntimeException("Milestone not found"));
+            LearningPlan plan = m.getLearningPlan();
+            return new Target(
+                    plan.getUser().getId(),
+                    plan.getId(),
+                    m.getId(),
+                    plan.getGithubUrl(),
+                    planContext.buildPlanContext(plan.getId()),
+                    milestoneContext.buildMilestoneContext(m),
+                    m.getTitle() + "\n" + m.getDescription() + "\n" + m.getLearningObjectives()
+            );
+        });
+    }
+
+    private String cachedCommit(String repoUrl) {
+        if (repoUrl == null || repoUrl.isBlank()) {
+            return null;
+        }
+        try {
+            return mirrorService.cachedHeadCommit(repoUrl);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // the queue fetched the pushed commit right before, so this reads the mirror it just updated
+    private String currentCommit(String repoUrl) {
+        if (repoUrl == null || repoUrl.isBlank()) {
+            return null;
+        }
+        try {
+            return mirrorService.headCommit(repoUrl);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public record Outcome(String commitId, String feedback, boolean completed) {}
+
+    private record Target(
+            Long userId,
+            long planId,
+            long milestoneId,
+            String repoUrl,
+            String planContext,
+            String milestoneContext,
+            String retrievalQuery
+    ) {}
 }
@@ -0,0 +1,48 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderRequest;
+import dev.langchain4j.service.tool.ToolProviderResult;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the tools of several {@link ToolProvider}s (e.g. the MCP provider) together with
+ * in-process {@link Tool}-annotated objects, so {@code AiServices} sees a single tool set.
+ */
+public class CompositeToolProvider implements ToolProvider {
+    private final List<ToolProvider> providers;
+    private final Map<ToolSpecification, ToolExecutor> localTools = new LinkedHashMap<>();
+
+    public CompositeToolProvider(List<ToolProvider> providers, Object... toolObjects) {
+        this.providers = providers;
+        for (Object toolObject : toolObjects) {
+            for (Method method : toolObject.getClass().getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    localTools.put(
+                            ToolSpecifications.toolSpecificationFrom(method),
+                            new DefaultToolExecutor(toolObject, method)
+                    );
+                }
+            }
+        }
+    }
+
+    @Override
+    public ToolProviderResult provideTools(ToolProviderRequest request) {
+        ToolProviderResult.Builder result = ToolProviderResult.builder();
+        for (ToolProvider provider : providers) {
+            provider.provideTools(request).tools().forEach(result::add);
+        }
+        localTools.forEach(result::add);
+        return result.build();
+    }
+}
@@ -0,0 +1,96 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.mcp.McpToolProvider;
+import dev.langchain4j.mcp.client.McpClient;
+import dev.langchain4j.service.tool.ToolProvider;
+
+import java.util.function.Supplier;
+
+/**
+ * Pool endpoint backed by an MCP client that is only created, and connected, on first use. A
+ * failed connect is not remembered, the next call tries again.
+ *
+ * <p>The connect runs outside the monitor, so a slow or hanging server never blocks
+ * {@link #close()} or the health probe behind it. When two callers race to connect, the first
+ * client published wins and the other one is closed.
+ */
+public class LazyMcpEndpoint implements McpClientPool.Endpoint {
+    private final String name;
+    private final Supplier<McpClient> clientFactory;
+    private final String[] toolNames;
+    private volatile McpClient client;
+    private volatile ToolProvider tools;
+    private boolean closed; // guarded by this
+
+    public LazyMcpEndpoint(String name, Supplier<McpClient> clientFactory, String... toolNames) {
+        this.name = name;
+        this.clientFactory = clientFactory;
+        this.toolNames = toolNames;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public ToolProvider tools() {
+        ToolProvider current = tools;
+        if (current == null) {
+            current = McpToolProvider.builder()
+                    .mcpClients(client())
+                    .filterToolNames(toolNames)
+                    .build();
+            tools = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void checkHealth() {
+        client().checkHealth();
+    }
+
+    @Override
+    public void close() {
+        McpClient current;
+        synchronized (this) {
+            closed = true;
+            current = client;
+        }
+        if (current != null) {
+            closeClient(current);
+        }
+    }
+
+    private McpClient client() {
+        McpClient current = client;
+        if (current != null) {
+            return current;
+        }
+        McpClient connected = clientFactory.get();
+        synchronized (this) {
+            if (closed) {
+                current = null;
+            } else if (client == null) {
+                client = connected;
+                return connected;
+            } else {
+                current = client;
+            }
+        }
+        closeClient(connected);
+        if (current == null) {
+            throw new IllegalStateException("MCP endpoint " + name + " is closed");
+        }
+        return current;
+    }
+
+    private static void closeClient(McpClient client) {
+        try {
+            client.close();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
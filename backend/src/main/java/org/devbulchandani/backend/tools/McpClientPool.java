@@ -0,0 +1,316 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.service.tool.ToolExecutor;
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderRequest;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import org.devbulchandani.backend.dtos.McpEndpointStatsDto;
+import org.devbulchandani.backend.logging.PayloadLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads MCP tool calls over several analyzer endpoints that serve the same tools. Each call
+ * goes to the healthy endpoint with the fewest calls in flight (ties go to the lower recent
+ * latency). An endpoint that fails {@code failureThreshold} calls in a row is ejected for
+ * {@code cooldown}; a background probe brings it back early once its health check passes. Each
+ * probe gets {@code probeTimeout} on its own thread, so one hanging endpoint neither delays the
+ * others nor stacks up probes while it stays stuck. A failed call is retried once on another
+ * endpoint, the analyzer tools only read.
+ *
+ * <p>Tool specifications are listed once and reused, so a turn does not cost a
+ * {@code tools/list} round trip.
+ */
+public class McpClientPool implements ToolProvider, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(McpClientPool.class);
+    private static final Logger payloadLog = LoggerFactory.getLogger("payload.mcp");
+    private static final Duration SPEC_TTL = Duration.ofMinutes(5);
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final List<Member> members = new ArrayList<>();
+    private final int failureThreshold;
+    private final Duration cooldown;
+    private final Duration probeTimeout;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mcp-health-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService healthChecks = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mcp-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile List<ToolSpecification> specs;
+    private volatile long specsLoadedAt;
+
+    public McpClientPool(List<Endpoint> endpoints, int failureThreshold, Duration cooldown) {
+        this(endpoints, failureThreshold, cooldown, Duration.ofSeconds(5));
+    }
+
+    public McpClientPool(List<Endpoint> endpoints, int failureThreshold, Duration cooldown, Duration probeTimeout) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one MCP endpoint is required");
+        }
+        for (Endpoint endpoint : endpoints) {
+            members.add(new Member(endpoint));
+        }
+        this.failureThreshold = failureThreshold;
+        this.cooldown = cooldown;
+        this.probeTimeout = probeTimeout;
+        long probeMillis = Math.max(1, cooldown.toMillis() / 2);
+        prober.scheduleWithFixedDelay(this::probeEjected, probeMillis, probeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ToolProviderResult provideTools(ToolProviderRequest request) {
+        ToolProviderResult.Builder result = ToolProviderResult.builder();
+        for (ToolSpecification spec : specs(request)) {
+            result.add(spec, (toolRequest, memoryId) -> execute(request, toolRequest, memoryId));
+        }
+        return result.build();
+    }
+
+    public List<McpEndpointStatsDto> stats() {
+        long now = System.nanoTime();
+        List<McpEndpointStatsDto> stats = new ArrayList<>();
+        for (Member m : members) {
+            long calls = m.calls.sum();
+            stats.add(new McpEndpointStatsDto(
+                    m.endpoint.name(),
+                    !m.isEjected(now),
+                    m.outstanding.get(),
+                    calls,
+                    m.failures.sum(),
+                    calls == 0 ? 0 : m.totalNanos.sum() / calls / 1_000_000.0,
+                    m.ewmaNanos / 1_000_000.0,
+                    m.maxNanos.get() / 1_000_000.0
+            ));
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        healthChecks.shutdownNow();
+        for (Member m : members) {
+            try {
+                m.endpoint.close();
+            } catch (RuntimeException e) {
+                log.warn("Failed to close MCP endpoint {}: {}", m.endpoint.name(), e.getMessage());
+            }
+        }
+    }
+
+    private List<ToolSpecification> specs(ToolProviderRequest request) {
+        List<ToolSpecification> cached = specs;
+        if (cached != null && System.nanoTime() - specsLoadedAt < SPEC_TTL.toNanos()) {
+            return cached;
+        }
+
+        RuntimeException lastFailure = null;
+        for (Member m : byPreference(System.nanoTime())) {
+            try {
+                List<ToolSpecification> loaded = m.reload(request);
+                specs = loaded;
+                specsLoadedAt = System.nanoTime();
+                m.recordSuccess(0);
+                return loaded;
+            } catch (RuntimeException e) {
+                lastFailure = e;
+                recordFailure(m);
+            }
+        }
+        if (cached != null) {
+            return cached;
+        }
+        log.warn("No MCP endpoint could list its tools: {}", lastFailure.getMessage());
+        return List.of();
+    }
+
+    private String execute(ToolProviderRequest providerRequest, ToolExecutionRequest request, Object memoryId) {
+        List<Member> candidates = byPreference(System.nanoTime());
+        RuntimeException lastFailure = null;
+
+        for (int attempt = 0; attempt < Math.min(2, candidates.size()); attempt++) {
+            Member m = candidates.get(attempt);
+            m.outstanding.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                ToolExecutor executor = m.executors(providerRequest).get(request.name());
+                if (executor == null) {
+                    throw new RuntimeException("Tool " + request.name() + " is not served by " + m.endpoint.name());
+                }
+                String result = executor.execute(request, memoryId);
+                long nanos = System.nanoTime() - start;
+                m.recordSuccess(nanos);
+                payloadLog.info("mcp call tool={} endpoint={} latencyMs={} arguments={} result={}",
+                        request.name(), m.endpoint.name(), nanos / 1_000_000,
+                        PayloadLog.of(request.arguments()), PayloadLog.of(result));
+                return result;
+            } catch (RuntimeException e) {
+                m.recordLatency(System.nanoTime() - start);
+                recordFailure(m);
+                lastFailure = e;
+            } finally {
+                m.outstanding.decrementAndGet();
+            }
+        }
+        throw lastFailure;
+    }
+
+    // healthy endpoints by fewest in-flight calls, then recent latency; ejected ones last,
+    // so a fully ejected pool still tries the endpoint that is closest to coming back
+    private List<Member> byPreference(long now) {
+        List<Member> healthy = new ArrayList<>();
+        List<Member> ejected = new ArrayList<>();
+        int offset = Math.floorMod(rotation.getAndIncrement(), members.size());
+        for (int i = 0; i < members.size(); i++) {
+            Member m = members.get((i + offset) % members.size());
+            (m.isEjected(now) ? ejected : healthy).add(m);
+        }
+        healthy.sort((a, b) -> {
+            int byOutstanding = Integer.compare(a.outstanding.get(), b.outstanding.get());
+            return byOutstanding != 0 ? byOutstanding : Double.compare(a.ewmaNanos, b.ewmaNanos);
+        });
+        ejected.sort((a, b) -> Long.compare(a.ejectedUntil, b.ejectedUntil));
+        healthy.addAll(ejected);
+        return healthy;
+    }
+
+    private void recordFailure(Member m) {
+        m.failures.increment();
+        if (m.consecutiveFailures.incrementAndGet() >= failureThreshold && !m.isEjected(System.nanoTime())) {
+            m.ejectedUntil = System.nanoTime() + cooldown.toNanos();
+            log.warn("Ejected MCP endpoint {} for {}s", m.endpoint.name(), cooldown.toSeconds());
+        }
+    }
+
+    private void probeEjected() {
+        Map<Member, Future<?>> checks = new LinkedHashMap<>();
+        for (Member m : members) {
+            // a probe still stuck from an earlier round keeps the endpoint ejected, no second one
+            if (!m.isEjected(System.nanoTime()) || !m.probing.compareAndSet(false, true)) {
+                continue;
+            }
+            checks.put(m, healthChecks.submit(() -> {
+                try {
+                    m.endpoint.checkHealth();
+                } finally {
+                    m.probing.set(false);
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + probeTimeout.toNanos();
+        for (Map.Entry<Member, Future<?>> check : checks.entrySet()) {
+            Member m = check.getKey();
+            try {
+                check.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                m.consecutiveFailures.set(0);
+                m.ejectedUntil = 0;
+                log.info("MCP endpoint {} is healthy again", m.endpoint.name());
+            } catch (ExecutionException e) {
+                m.ejectedUntil = System.nanoTime() + cooldown.toNanos();
+            } catch (TimeoutException e) {
+                check.getValue().cancel(true);
+                m.ejectedUntil = System.nanoTime() + cooldown.toNanos();
+                log.warn("MCP endpoint {} health check timed out after {}ms", m.endpoint.name(), probeTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * One analyzer endpoint. Implementations may connect lazily on first use.
+     */
+    public interface Endpoint extends AutoCloseable {
+        String name();
+
+        ToolProvider tools();
+
+        void checkHealth();
+
+        @Override
+        void close();
+    }
+
+    private static final class Member {
+        private final Endpoint endpoint;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean probing = new AtomicBoolean();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile Map<String, ToolExecutor> executors;
+        private volatile double ewmaNanos;
+        private volatile long ejectedUntil;
+
+        private Member(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private boolean isEjected(long now) {
+            return ejectedUntil != 0 && ejectedUntil - now > 0;
+        }
+
+        private synchronized Map<String, ToolExecutor> executors(ToolProviderRequest request) {
+            if (executors == null) {
+                reload(request);
+            }
+            return executors;
+        }
+
+        private synchronized List<ToolSpecification> reload(ToolProviderRequest request) {
+            Map<String, ToolSpecification> specs = new LinkedHashMap<>();
+            Map<String, ToolExecutor> loaded = new LinkedHashMap<>();
+            endpoint.tools().provideTools(request).tools().forEach((spec, executor) -> {
+                specs.put(spec.name(), spec);
+                loaded.put(spec.name(), executor);
+            });
+            executors = loaded;
+            return new ArrayList<>(specs.values());
+        }
+
+        private void recordSuccess(long nanos) {
+            consecutiveFailures.set(0);
+            if (nanos > 0) {
+                recordLatency(nanos);
+            }
+        }
+
+        private void recordLatency(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            double ewma = ewmaNanos;
+            ewmaNanos = ewma == 0 ? nanos : ewma + EWMA_WEIGHT * (nanos - ewma);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.service.tool.ToolExecutor;
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderResult;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor handed to {@code AiServices.executeToolsConcurrently}, so the tool calls the model
+ * asks for in one response run at the same time instead of one after another. AiServices
+ * submits all calls of a response from the request thread and waits for them, then returns the
+ * results in the order the model requested them.
+ *
+ * <p>The executor is also registered as a listener on the chat model. A response that asks for
+ * several tool calls opens a turn on the request thread, and exactly that many submissions are
+ * counted against it. Calls run on one pool of {@code maxConcurrency} threads, and a turn
+ * shares one deadline counted from the response; tools wrapped with {@link #withTurnDeadline}
+ * return an error to the model instead of starting after it. A call that has started is not
+ * abandoned, interrupting a blocked HTTP read does nothing, so each tool has to bound its own
+ * calls (the MCP clients have a tool execution timeout below the turn deadline).
+ */
+public class ParallelToolExecutor implements Executor, ChatModelListener {
+    private static final ThreadLocal<Turn> SUBMITTING_TURN = new ThreadLocal<>();
+    private static final ThreadLocal<Turn> RUNNING_TURN = new ThreadLocal<>();
+
+    private final Duration turnDeadline;
+    private final ExecutorService callers;
+
+    public ParallelToolExecutor(int maxConcurrency, Duration turnDeadline) {
+        this.turnDeadline = turnDeadline;
+        this.callers = Executors.newFixedThreadPool(maxConcurrency, daemonThreads("tool-call-"));
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        AiMessage message = context.chatResponse().aiMessage();
+        int calls = message.hasToolExecutionRequests() ? message.toolExecutionRequests().size() : 0;
+        // AiServices only uses the executor for responses with more than one call
+        if (calls > 1) {
+            SUBMITTING_TURN.set(newTurn(calls));
+        } else {
+            SUBMITTING_TURN.remove();
+        }
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        SUBMITTING_TURN.remove();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Turn submitting = SUBMITTING_TURN.get();
+        // not submitted after a model response on this thread, so it is a turn of its own
+        Turn turn = submitting != null ? submitting : newTurn(1);
+        boolean submitted = false;
+        try {
+            callers.execute(() -> {
+                RUNNING_TURN.set(turn);
+                try {
+                    // a task still queued at the deadline runs anyway so its future completes;
+                    // the deadline wrapper sees the expired turn and returns right away
+                    task.run();
+                } finally {
+                    RUNNING_TURN.remove();
+                }
+            });
+            submitted = true;
+        } finally {
+            // the request thread goes back to its pool, so the turn must not outlive its last
+            // submission, nor a failed one after which AiServices submits nothing more
+            if (submitting != null && (!submitted || --submitting.unsubmitted == 0)) {
+                SUBMITTING_TURN.remove();
+            }
+        }
+    }
+
+    // whether the calling thread still has a turn open, for tests
+    static boolean hasSubmittingTurn() {
+        return SUBMITTING_TURN.get() != null;
+    }
+
+    /**
+     * Wraps every tool of {@code delegate} so it gives up once the deadline of the turn it runs
+     * in has passed. Calls made outside a parallel turn get the full deadline to themselves.
+     */
+    public ToolProvider withTurnDeadline(ToolProvider delegate) {
+        return request -> {
+            ToolProviderResult.Builder result = ToolProviderResult.builder();
+            delegate.provideTools(request).tools()
+                    .forEach((spec, executor) -> result.add(spec, deadlineBound(executor)));
+            return result.build();
+        };
+    }
+
+    public void shutdown() {
+        callers.shutdownNow();
+    }
+
+    private ToolExecutor deadlineBound(ToolExecutor delegate) {
+        return (ToolExecutionRequest request, Object memoryId) -> {
+            // a single tool call is run on the request thread, outside any turn
+            Turn turn = RUNNING_TURN.get();
+            if (turn != null && turn.remainingNanos() <= 0) {
+                return "Error: " + request.name() + " was not run, the "
+                        + turnDeadline.toSeconds() + "s time budget for this turn is used up.";
+            }
+            return delegate.execute(request, memoryId);
+        };
+    }
+
+    private Turn newTurn(int calls) {
+        return new Turn(calls, System.nanoTime() + turnDeadline.toNanos());
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Turn {
+        private final long deadlineNanos;
+        // only touched by the submitting thread
+        private int unsubmitted;
+
+        private Turn(int calls, long deadlineNanos) {
+            this.unsubmitted = calls;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import org.devbulchandani.backend.services.CodeSearchIndex;
+import org.devbulchandani.backend.services.CodeSearchService;
+import org.devbulchandani.backend.services.RepositoryMirrorService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class RepositoryTools {
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    private final RepositoryMirrorService mirrorService;
+    private final CodeSearchService codeSearchService;
+
+    public RepositoryTools(RepositoryMirrorService mirrorService, CodeSearchService codeSearchService) {
+        this.mirrorService = mirrorService;
+        this.codeSearchService = codeSearchService;
+    }
+
+    @Tool(name = "list_repo_files", value = "Lists every file path in the GitHub repository, served from a local mirror.")
+    public String listRepoFiles(@P("The GitHub repository URL") String repoUrl) {
+        try {
+            List<String> files = mirrorService.listFiles(repoUrl);
+            return String.join("\n", files);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Tool(name = "read_repo_file", value = "Reads one file of the GitHub repository from a local mirror.")
+    public String readRepoFile(
+            @P("The GitHub repository URL") String repoUrl,
+            @P("Path of the file relative to the repository root") String path) {
+        try {
+            return mirrorService.readFile(repoUrl, path);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Tool(name = "search_code", value = "Searches the source code of the GitHub repository and returns ranked file:line snippets. Use it to find where something is defined or used before reading files.")
+    public String searchCode(
+            @P("The GitHub repository URL") String repoUrl,
+            @P("Words or identifiers to search for") String query,
+            @P("Maximum number of results, e.g. 20") int limit) {
+        try {
+            List<CodeSearchIndex.SearchHit> hits = codeSearchService.search(
+                    repoUrl, query, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+            if (hits.isEmpty()) {
+                return "No matches for: " + query;
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (CodeSearchIndex.SearchHit hit : hits) {
+                sb.append(hit.path()).append(':').append(hit.line()).append(": ").append(hit.snippet()).append("\n");
+            }
+            return sb.toString();
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.devbulchandani.backend.usage;
+
+/**
+ * Who a model call is made for. Set around the call on the calling thread; the ledger reads it
+ * when the response arrives. Missing ids are recorded as 0.
+ */
+public final class UsageContext {
+    public static final String CHAT = "chat";
+    public static final String VERIFY = "verify";
+    public static final String CURRICULUM = "curriculum";
+
+    private static final ThreadLocal<Current> CURRENT = new ThreadLocal<>();
+    private static final Current UNATTRIBUTED = new Current(0, 0, "unattributed");
+
+    private UsageContext() {
+    }
+
+    public static Scope open(Long userId, Long planId, String endpoint) {
+        Current previous = CURRENT.get();
+        CURRENT.set(new Current(userId == null ? 0 : userId, planId == null ? 0 : planId, endpoint));
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static Current current() {
+        Current current = CURRENT.get();
+        return current == null ? UNATTRIBUTED : current;
+    }
+
+    record Current(long userId, long planId, String endpoint) {}
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
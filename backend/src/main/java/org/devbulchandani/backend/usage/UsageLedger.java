@@ -0,0 +1,158 @@
+package org.devbulchandani.backend.usage;
+
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.response.ChatResponseMetadata;
+import dev.langchain4j.model.output.TokenUsage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the token usage of every chat model response per (day, user, plan, endpoint, model),
+ * the day being the one the response arrived on. Responses only bump {@link LongAdder}s, the
+ * database is written by a scheduled flush that drains the counters into one batched upsert. A
+ * failed flush puts its totals back.
+ *
+ * <p>Recording takes no lock. A drain swaps in an empty generation of counters with
+ * {@code getAndSet} and sums the old one once the recorders that got in before the swap are
+ * done: each recorder counts itself into the generation's {@code writers} adder, then checks that
+ * the generation is still current, and retries on the new one if it is not. The drain re-reads
+ * {@code writers} after the swap until it is zero, so no increment lands after the sum.
+ *
+ * <p>Gemini counts thinking tokens in the total but not in the output, so they are taken as
+ * total minus input minus output.
+ */
+@Component
+public class UsageLedger implements ChatModelListener {
+    private static final Logger log = LoggerFactory.getLogger(UsageLedger.class);
+
+    private final UsageStore store;
+    private final Clock clock;
+    private final AtomicReference<Generation> current = new AtomicReference<>(new Generation());
+
+    @Autowired
+    public UsageLedger(UsageStore store) {
+        this(store, Clock.systemDefaultZone());
+    }
+
+    UsageLedger(UsageStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        ChatResponseMetadata metadata = context.chatResponse().metadata();
+        TokenUsage usage = metadata.tokenUsage();
+        if (usage == null) {
+            return;
+        }
+
+        long input = orZero(usage.inputTokenCount());
+        long output = orZero(usage.outputTokenCount());
+        long total = orZero(usage.totalTokenCount());
+        String model = metadata.modelName() != null ? metadata.modelName() : context.chatRequest().modelName();
+        record(UsageContext.current(), model == null ? "unknown" : model, input, output, Math.max(0, total - input - output));
+    }
+
+    void record(UsageContext.Current current, String model, long input, long output, long thinking) {
+        add(new Key(LocalDate.now(clock), current.userId(), current.planId(), current.endpoint(), model),
+                1, input, output, thinking);
+    }
+
+    private void add(Key key, long calls, long input, long output, long thinking) {
+        Generation generation = enter();
+        try {
+            Counters c = generation.counters.computeIfAbsent(key, k -> new Counters());
+            c.calls.add(calls);
+            c.inputTokens.add(input);
+            c.outputTokens.add(output);
+            c.thinkingTokens.add(thinking);
+        } finally {
+            generation.writers.decrement();
+        }
+    }
+
+    private Generation enter() {
+        while (true) {
+            Generation generation = current.get();
+            generation.writers.increment();
+            if (current.get() == generation) {
+                return generation;
+            }
+            // swapped out before we were counted, its drain may not wait for us
+            generation.writers.decrement();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${usage.flush-interval-ms}")
+    public void flush() {
+        List<UsageRow> rows = drain();
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            store.upsert(rows);
+        } catch (RuntimeException e) {
+            log.warn("Usage flush failed, keeping {} rows for the next one: {}", rows.size(), e.getMessage());
+            for (UsageRow row : rows) {
+                add(new Key(row.day(), row.userId(), row.planId(), row.endpoint(), row.model()),
+                        row.calls(), row.inputTokens(), row.outputTokens(), row.thinkingTokens());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // swaps in an empty generation and sums the old one; keys idle since the previous drain are gone
+    List<UsageRow> drain() {
+        Generation drained = current.getAndSet(new Generation());
+        // grace handoff: recorders counted in before the swap finish a handful of adds
+        while (drained.writers.sum() != 0) {
+            Thread.yield();
+        }
+
+        List<UsageRow> rows = new ArrayList<>();
+        drained.counters.forEach((key, c) -> rows.add(new UsageRow(key.day, key.userId, key.planId, key.endpoint, key.model,
+                c.calls.sum(), c.inputTokens.sum(), c.outputTokens.sum(), c.thinkingTokens.sum())));
+        return rows;
+    }
+
+    private static long orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    public record UsageRow(LocalDate day, long userId, long planId, String endpoint, String model,
+                           long calls, long inputTokens, long outputTokens, long thinkingTokens) {}
+
+    private record Key(LocalDate day, long userId, long planId, String endpoint, String model) {}
+
+    private static final class Generation {
+        private final Map<Key, Counters> counters = new ConcurrentHashMap<>();
+        // recorders currently adding to this generation
+        private final LongAdder writers = new LongAdder();
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder inputTokens = new LongAdder();
+        private final LongAdder outputTokens = new LongAdder();
+        private final LongAdder thinkingTokens = new LongAdder();
+    }
+}
@@ -0,0 +1,80 @@
+package org.devbulchandani.backend.usage;
+
+import org.devbulchandani.backend.dtos.DailyUsageDto;
+import org.devbulchandani.backend.dtos.UserUsageDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class UsageStore {
+    private final JdbcTemplate jdbc;
+
+    public UsageStore(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    public void upsert(List<UsageLedger.UsageRow> rows) {
+        jdbc.batchUpdate("""
+                INSERT INTO llm_usage (usage_date, user_id, plan_id, endpoint, model,
+                                       calls, input_tokens, output_tokens, thinking_tokens)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) AS delta
+                ON DUPLICATE KEY UPDATE
+                    calls = llm_usage.calls + delta.calls,
+                    input_tokens = llm_usage.input_tokens + delta.input_tokens,
+                    output_tokens = llm_usage.output_tokens + delta.output_tokens,
+                    thinking_tokens = llm_usage.thinking_tokens + delta.thinking_tokens
+                """, rows, rows.size(), (ps, row) -> {
+            ps.setDate(1, Date.valueOf(row.day()));
+            ps.setLong(2, row.userId());
+            ps.setLong(3, row.planId());
+            ps.setString(4, row.endpoint());
+            ps.setString(5, row.model());
+            ps.setLong(6, row.calls());
+            ps.setLong(7, row.inputTokens());
+            ps.setLong(8, row.outputTokens());
+            ps.setLong(9, row.thinkingTokens());
+        });
+    }
+
+    public List<DailyUsageDto> dailyTotals(LocalDate from, LocalDate to) {
+        return jdbc.query("""
+                SELECT usage_date, SUM(calls), SUM(input_tokens), SUM(output_tokens), SUM(thinking_tokens)
+                FROM llm_usage
+                WHERE usage_date BETWEEN ? AND ?
+                GROUP BY usage_date
+                ORDER BY usage_date
+                """, (rs, i) -> new DailyUsageDto(
+                rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<DailyUsageDto> dailyTotalsForUser(long userId, LocalDate from, LocalDate to) {
+        return jdbc.query("""
+                SELECT usage_date, SUM(calls), SUM(input_tokens), SUM(output_tokens), SUM(thinking_tokens)
+                FROM llm_usage
+                WHERE user_id = ? AND usage_date BETWEEN ? AND ?
+                GROUP BY usage_date
+                ORDER BY usage_date
+                """, (rs, i) -> new DailyUsageDto(
+                rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<UserUsageDto> userTotals(LocalDate from, LocalDate to) {
+        return jdbc.query("""
+                SELECT lu.user_id, u.email, SUM(lu.calls), SUM(lu.input_tokens), SUM(lu.output_tokens), SUM(lu.thinking_tokens)
+                FROM llm_usage lu
+                LEFT JOIN users u ON u.id = lu.user_id
+                WHERE lu.usage_date BETWEEN ? AND ?
+                GROUP BY lu.user_id, u.email
+                ORDER BY SUM(lu.input_tokens) + SUM(lu.output_tokens) + SUM(lu.thinking_tokens) DESC
+                """, (rs, i) -> new UserUsageDto(
+                rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,31 @@
+package org.devbulchandani.backend.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards internal endpoints with a shared token sent as {@code X-Admin-Token}. Without a
+ * configured token every admin request is rejected.
+ */
+@Component
+public class AdminAuth {
+    private final String adminToken;
+
+    public AdminAuth(@Value("${admin.token}") String adminToken) {
+        this.adminToken = adminToken;
+    }
+
+    public void require(String token) {
+        boolean valid = !adminToken.isBlank() && token != null && MessageDigest.isEqual(
+                adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+        if (!valid) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin token required");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255),
+    name          VARCHAR(255),
+    created_at    DATETIME(6),
+    updated_at    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE learning_plans (
+    id                  BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id             BIGINT,
+    tech                VARCHAR(255),
+    project_name        VARCHAR(255) NOT NULL,
+    project_description VARCHAR(255),
+    duration_days       INT          NOT NULL,
+    skill_level         VARCHAR(255) NOT NULL,
+    github_url          VARCHAR(255),
+    project_path        VARCHAR(255),
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_learning_plans_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE milestones (
+    id                  BIGINT       NOT NULL AUTO_INCREMENT,
+    learning_plan_id    BIGINT       NOT NULL,
+    sequence_number     INT          NOT NULL,
+    title               VARCHAR(255) NOT NULL,
+    description         VARCHAR(255),
+    learning_objectives VARCHAR(255),
+    completed           BIT          NOT NULL,
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_milestones_learning_plan FOREIGN KEY (learning_plan_id) REFERENCES learning_plans (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE chat_messages (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT,
+    role       TINYINT,
+    message    VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_chat_messages_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,10 @@
+-- Indexes for the real access paths:
+--   LearningPlanRepository.findByUserEmail: users by email (uk_users_email), then plans by user
+--   plan milestones: by learning_plan_id, ordered by sequence_number
+--   chat history: by user, newest first
+
+CREATE INDEX idx_learning_plans_user_created ON learning_plans (user_id, created_at);
+
+CREATE INDEX idx_milestones_plan_sequence ON milestones (learning_plan_id, sequence_number);
+
+CREATE INDEX idx_chat_messages_user_created ON chat_messages (user_id, created_at);
@@ -0,0 +1,8 @@
+ALTER TABLE learning_plans
+    ADD COLUMN total_milestones     INT NOT NULL DEFAULT 0,
+    ADD COLUMN completed_milestones INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_verified_at     DATETIME(6);
+
+UPDATE learning_plans lp
+SET lp.total_milestones     = (SELECT COUNT(*) FROM milestones m WHERE m.learning_plan_id = lp.id),
+    lp.completed_milestones = (SELECT COUNT(*) FROM milestones m WHERE m.learning_plan_id = lp.id AND m.completed = 1);
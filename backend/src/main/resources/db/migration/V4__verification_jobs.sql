@@ -0,0 +1,23 @@
+CREATE TABLE verification_jobs (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    milestone_id BIGINT       NOT NULL,
+    repo_url     VARCHAR(255) NOT NULL,
+    commit_id    VARCHAR(64),
+    status       VARCHAR(16)  NOT NULL,
+    run_after    DATETIME(6)  NOT NULL,
+    attempts     INT          NOT NULL DEFAULT 0,
+    completed    BIT,
+    feedback     TEXT,
+    created_at   DATETIME(6),
+    updated_at   DATETIME(6),
+    finished_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_verification_jobs_milestone FOREIGN KEY (milestone_id) REFERENCES milestones (id)
+) ENGINE = InnoDB;
+
+-- worker poll: due pending jobs; debounce/precomputed lookups: jobs of a milestone by status
+CREATE INDEX idx_verification_jobs_status_run_after ON verification_jobs (status, run_after);
+CREATE INDEX idx_verification_jobs_milestone_status ON verification_jobs (milestone_id, status, finished_at);
+
+-- push webhooks map the repository to plans by github_url
+CREATE INDEX idx_learning_plans_github_url ON learning_plans (github_url);
@@ -0,0 +1,11 @@
+CREATE TABLE cache_invalidations (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    origin     VARCHAR(36) NOT NULL,
+    kind       VARCHAR(16) NOT NULL,
+    entity_id  BIGINT      NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- replicas tail the log by primary key; pruning drops old rows by age
+CREATE INDEX idx_cache_invalidations_created ON cache_invalidations (created_at);
@@ -0,0 +1,15 @@
+CREATE TABLE llm_usage (
+    usage_date      DATE        NOT NULL,
+    user_id         BIGINT      NOT NULL DEFAULT 0,
+    plan_id         BIGINT      NOT NULL DEFAULT 0,
+    endpoint        VARCHAR(32) NOT NULL,
+    model           VARCHAR(64) NOT NULL,
+    calls           BIGINT      NOT NULL DEFAULT 0,
+    input_tokens    BIGINT      NOT NULL DEFAULT 0,
+    output_tokens   BIGINT      NOT NULL DEFAULT 0,
+    thinking_tokens BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (usage_date, user_id, plan_id, endpoint, model)
+) ENGINE = InnoDB;
+
+-- per-user reports; per-day reports use the primary key
+CREATE INDEX idx_llm_usage_user_date ON llm_usage (user_id, usage_date);
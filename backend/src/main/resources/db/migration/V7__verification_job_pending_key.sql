@@ -0,0 +1,20 @@
+-- at most one pending job per milestone: a push inside the debounce window moves the existing
+-- job instead of queueing a second review. MySQL has no partial indexes, so the unique key is on
+-- a generated column that is only set while the job is pending.
+
+-- keep the newest pending job of each milestone, older duplicates are superseded
+UPDATE verification_jobs j
+    JOIN (SELECT milestone_id, MAX(id) AS keep_id
+          FROM verification_jobs
+          WHERE status = 'PENDING'
+          GROUP BY milestone_id) newest ON j.milestone_id = newest.milestone_id
+SET j.status      = 'FAILED',
+    j.feedback    = 'Superseded by a newer push',
+    j.finished_at = NOW(6)
+WHERE j.status = 'PENDING'
+  AND j.id < newest.keep_id;
+
+ALTER TABLE verification_jobs
+    ADD COLUMN pushed_commit VARCHAR(64) AFTER commit_id,
+    ADD COLUMN pending_milestone_id BIGINT AS (IF(status = 'PENDING', milestone_id, NULL)) VIRTUAL,
+    ADD UNIQUE INDEX uq_verification_jobs_pending_milestone (pending_milestone_id);
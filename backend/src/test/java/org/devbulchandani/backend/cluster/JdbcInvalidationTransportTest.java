@@ -0,0 +1,101 @@
+package org.devbulchandani.backend.cluster;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mysql.MySQLContainer;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two transports on one database stand in for two replicas.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class JdbcInvalidationTransportTest {
+
+    @Container
+    static final MySQLContainer MYSQL = new MySQLContainer("mysql:8.0");
+
+    private final BlockingQueue<Invalidation> receivedByA = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Invalidation> receivedByB = new LinkedBlockingQueue<>();
+    private JdbcInvalidationTransport a;
+    private JdbcInvalidationTransport b;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void startReplicas() throws InterruptedException {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        a = new JdbcInvalidationTransport(dataSource, Duration.ofMillis(50), Duration.ofMinutes(60));
+        b = new JdbcInvalidationTransport(dataSource, Duration.ofMillis(50), Duration.ofMinutes(60));
+        a.start(receivedByA::add);
+        b.start(receivedByB::add);
+        assertTrue(a.awaitReady(Duration.ofSeconds(5)));
+        assertTrue(b.awaitReady(Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    void stopReplicas() {
+        a.stop();
+        b.stop();
+    }
+
+    @Test
+    void otherReplicaReceivesInvalidationsInOrder() throws InterruptedException {
+        a.publish(Invalidation.plan(7));
+        a.publish(Invalidation.milestone(21));
+
+        assertEquals(Invalidation.plan(7), receivedByB.poll(5, TimeUnit.SECONDS));
+        assertEquals(Invalidation.milestone(21), receivedByB.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void publisherDoesNotReceiveItsOwnInvalidations() throws InterruptedException {
+        a.publish(Invalidation.plan(1));
+        b.publish(Invalidation.plan(2));
+
+        assertEquals(Invalidation.plan(2), receivedByA.poll(5, TimeUnit.SECONDS));
+        assertEquals(Invalidation.plan(1), receivedByB.poll(5, TimeUnit.SECONDS));
+        assertNull(receivedByA.poll(300, TimeUnit.MILLISECONDS));
+        assertNull(receivedByB.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void lateStartingReplicaSkipsHistory() throws InterruptedException {
+        a.publish(Invalidation.plan(3));
+        assertEquals(Invalidation.plan(3), receivedByB.poll(5, TimeUnit.SECONDS));
+
+        BlockingQueue<Invalidation> receivedByC = new LinkedBlockingQueue<>();
+        JdbcInvalidationTransport c = new JdbcInvalidationTransport(
+                new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword()),
+                Duration.ofMillis(50), Duration.ofMinutes(60));
+        c.start(receivedByC::add);
+        try {
+            assertTrue(c.awaitReady(Duration.ofSeconds(5)));
+            a.publish(Invalidation.plan(4));
+            assertEquals(Invalidation.plan(4), receivedByC.poll(5, TimeUnit.SECONDS));
+            assertNull(receivedByC.poll(300, TimeUnit.MILLISECONDS));
+        } finally {
+            c.stop();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.devbulchandani.backend.config;
+
+import org.devbulchandani.backend.dtos.JdbcStatementStatsDto;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JdbcStatementStatsTest {
+
+    private final JdbcStatementStats stats = new JdbcStatementStats();
+
+    @Test
+    void timesPreparedAndPlainStatementsBySql() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        Statement plain = mock(Statement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(prepared);
+        when(connection.createStatement()).thenReturn(plain);
+        when(plain.executeUpdate("DELETE FROM cache_invalidations")).thenThrow(new SQLException("locked"));
+        DataSource dataSource = stats.wrap(dataSource(connection));
+
+        try (Connection c = dataSource.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                c.prepareStatement("SELECT *\n  FROM llm_usage_daily WHERE day = ?").executeQuery();
+            }
+            Statement s = c.createStatement();
+            assertThrows(SQLException.class, () -> s.executeUpdate("DELETE FROM cache_invalidations"));
+        }
+
+        List<JdbcStatementStatsDto> snapshot = stats.snapshot();
+        assertEquals(2, snapshot.size());
+        JdbcStatementStatsDto select = find(snapshot, "SELECT * FROM llm_usage_daily WHERE day = ?");
+        assertEquals(3, select.executions());
+        assertEquals(0, select.failures());
+        JdbcStatementStatsDto delete = find(snapshot, "DELETE FROM cache_invalidations");
+        assertEquals(1, delete.executions());
+        assertEquals(1, delete.failures());
+
+        stats.clear();
+        assertTrue(stats.snapshot().isEmpty());
+    }
+
+    @Test
+    void wrappedConnectionsKeepIdentityAndUnwrap() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(connection.unwrap(Connection.class)).thenReturn(connection);
+        DataSource dataSource = stats.wrap(dataSource(connection));
+
+        Connection wrapped = dataSource.getConnection();
+        Set<Connection> open = new HashSet<>();
+        open.add(wrapped);
+        assertTrue(open.contains(wrapped));
+        assertSame(connection, wrapped.unwrap(Connection.class));
+        // code that reaches the connection through a statement stays on the timed one
+        assertSame(wrapped, wrapped.prepareStatement("SELECT 1").getConnection());
+    }
+
+    @Test
+    void batchesOfPlainStatementsShareOneKey() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        DataSource dataSource = stats.wrap(dataSource(connection));
+
+        try (Connection c = dataSource.getConnection()) {
+            Statement s = c.createStatement();
+            s.addBatch("DELETE FROM cache_invalidations WHERE id = 1");
+            s.addBatch("DELETE FROM cache_invalidations WHERE id = 2");
+            s.executeBatch();
+        }
+
+        assertEquals(1, find(stats.snapshot(), JdbcStatementStats.BATCH).executions());
+    }
+
+    @Test
+    void capsDistinctStatements() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        DataSource dataSource = stats.wrap(dataSource(connection));
+
+        try (Connection c = dataSource.getConnection()) {
+            for (int i = 0; i < JdbcStatementStats.MAX_STATEMENTS + 20; i++) {
+                c.prepareStatement("SELECT * FROM users WHERE id = " + i).execute();
+            }
+        }
+
+        List<JdbcStatementStatsDto> snapshot = stats.snapshot();
+        assertEquals(JdbcStatementStats.MAX_STATEMENTS + 1, snapshot.size());
+        assertEquals(20, find(snapshot, JdbcStatementStats.OVERFLOW).executions());
+    }
+
+    private static DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private static JdbcStatementStatsDto find(List<JdbcStatementStatsDto> snapshot, String sql) {
+        return snapshot.stream().filter(s -> s.sql().equals(sql)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,66 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.dtos.PlanVersion;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.services.LearningContextService;
+import org.devbulchandani.backend.services.PlanVersionService;
+import org.devbulchandani.backend.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ContextControllerTest {
+    private final LearningContextService contextService = mock(LearningContextService.class);
+    private final LearningPlanRepository planRepo = mock(LearningPlanRepository.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new ContextController(contextService, new PlanVersionService(planRepo, mock(JwtUtil.class))))
+            .build();
+
+    @Test
+    void contextIsAnsweredWithNotModifiedWhileThePlanIsUnchanged() throws Exception {
+        when(planRepo.findVersionById(4)).thenReturn(version(LocalDateTime.of(2026, 10, 1, 12, 0)));
+        when(contextService.buildPlanContext(4)).thenReturn("Project: Todo API");
+
+        String etag = mvc.perform(get("/api/context/learning-plan/4"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string("Project: Todo API"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/context/learning-plan/4").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(contextService).buildPlanContext(4);
+    }
+
+    @Test
+    void planUpdateChangesTheContextEtag() throws Exception {
+        when(planRepo.findVersionById(4)).thenReturn(version(LocalDateTime.of(2026, 10, 1, 12, 0)));
+        when(contextService.buildPlanContext(4)).thenReturn("Project: Todo API");
+        String before = mvc.perform(get("/api/context/learning-plan/4")).andReturn().getResponse().getHeader("ETag");
+
+        when(planRepo.findVersionById(4)).thenReturn(version(LocalDateTime.of(2026, 10, 2, 8, 30)));
+
+        mvc.perform(get("/api/context/learning-plan/4").header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(before)));
+        verify(contextService, times(2)).buildPlanContext(4);
+    }
+
+    private static PlanVersion version(LocalDateTime planUpdatedAt) {
+        return new PlanVersion(1, 3, planUpdatedAt, LocalDateTime.of(2026, 9, 30, 9, 0));
+    }
+}
@@ -0,0 +1,132 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.dtos.PlanProgressDto;
+import org.devbulchandani.backend.dtos.PlanVersion;
+import org.devbulchandani.backend.models.LearningPlan;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.services.CurriculumGeneratorService;
+import org.devbulchandani.backend.services.PlanVersionService;
+import org.devbulchandani.backend.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CurriculumGeneratorControllerTest {
+    private final CurriculumGeneratorService service = mock(CurriculumGeneratorService.class);
+    private final LearningPlanRepository planRepo = mock(LearningPlanRepository.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new CurriculumGeneratorController(service, new PlanVersionService(planRepo, jwtUtil)))
+            .build();
+
+    @Test
+    void progressListsTheCallersPlansWithTheirCounters() throws Exception {
+        when(service.getProgress("token")).thenReturn(List.of(
+                new PlanProgressDto(1, "Todo API", 5, 2, LocalDateTime.of(2026, 10, 1, 12, 0)),
+                new PlanProgressDto(2, "Chat App", 4, 0, null)));
+
+        mvc.perform(get("/api/plans/progress").header("Authorization", "Bearer token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].planId").value(1))
+                .andExpect(jsonPath("$[0].projectName").value("Todo API"))
+                .andExpect(jsonPath("$[0].totalMilestones").value(5))
+                .andExpect(jsonPath("$[0].completedMilestones").value(2))
+                .andExpect(jsonPath("$[0].lastVerifiedAt").exists())
+                .andExpect(jsonPath("$[1].completedMilestones").value(0))
+                .andExpect(jsonPath("$[1].lastVerifiedAt").isEmpty());
+    }
+
+    @Test
+    void progressRequiresTheAuthorizationHeader() throws Exception {
+        mvc.perform(get("/api/plans/progress"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void planIsAnsweredWithNotModifiedWhileItsVersionIsUnchanged() throws Exception {
+        when(planRepo.findVersionById(7)).thenReturn(version(3, LocalDateTime.of(2026, 10, 1, 12, 0)));
+        when(service.getPlanById(7)).thenReturn(LearningPlan.builder().id(7).projectName("Todo API").build());
+
+        MvcResult first = mvc.perform(get("/api/plans/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.projectName").value("Todo API"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/plans/7").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(service).getPlanById(7);
+    }
+
+    @Test
+    void milestoneUpdateChangesThePlanEtag() throws Exception {
+        when(planRepo.findVersionById(7)).thenReturn(version(3, LocalDateTime.of(2026, 10, 1, 12, 0)));
+        when(service.getPlanById(7)).thenReturn(LearningPlan.builder().id(7).build());
+        String before = mvc.perform(get("/api/plans/7")).andReturn().getResponse().getHeader("ETag");
+
+        when(planRepo.findVersionById(7)).thenReturn(version(3, LocalDateTime.of(2026, 10, 1, 12, 5)));
+
+        mvc.perform(get("/api/plans/7").header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(before)));
+    }
+
+    @Test
+    void myPlansIsAnsweredWithNotModifiedWithoutLoadingThePlans() throws Exception {
+        when(jwtUtil.extractEmail("token")).thenReturn("dev@example.com");
+        when(planRepo.findVersionByUserEmail("dev@example.com"))
+                .thenReturn(version(2, LocalDateTime.of(2026, 10, 1, 12, 0)));
+        when(service.findByUserEmail("token")).thenReturn(List.of(LearningPlan.builder().id(1).build()));
+
+        String etag = mvc.perform(get("/api/plans/my-plans").header("Authorization", "Bearer token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        mvc.perform(get("/api/plans/my-plans")
+                        .header("Authorization", "Bearer token")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(service).findByUserEmail("token");
+    }
+
+    @Test
+    void myPlansEtagIsPerUser() throws Exception {
+        PlanVersion same = version(2, LocalDateTime.of(2026, 10, 1, 12, 0));
+        when(jwtUtil.extractEmail("a")).thenReturn("a@example.com");
+        when(jwtUtil.extractEmail("b")).thenReturn("b@example.com");
+        when(planRepo.findVersionByUserEmail("a@example.com")).thenReturn(same);
+        when(planRepo.findVersionByUserEmail("b@example.com")).thenReturn(same);
+        String etagOfA = mvc.perform(get("/api/plans/my-plans").header("Authorization", "Bearer a"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/plans/my-plans")
+                        .header("Authorization", "Bearer b")
+                        .header("If-None-Match", etagOfA))
+                .andExpect(status().isOk());
+    }
+
+    private static PlanVersion version(long milestones, LocalDateTime milestoneUpdatedAt) {
+        return new PlanVersion(1, milestones, LocalDateTime.of(2026, 9, 30, 9, 0), milestoneUpdatedAt);
+    }
+}
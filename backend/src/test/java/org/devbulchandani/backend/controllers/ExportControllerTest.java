@@ -0,0 +1,86 @@
+package org.devbulchandani.backend.controllers;
+
+import org.devbulchandani.backend.services.ExportService;
+import org.devbulchandani.backend.utils.AdminAuth;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExportControllerTest {
+    private final DataSource dataSource = mock(DataSource.class);
+    private final ExportService exportService = spy(new ExportService(dataSource));
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new ExportController(exportService, new AdminAuth("secret")))
+            .build();
+
+    @Test
+    void unknownDatasetIsNotFound() throws Exception {
+        mvc.perform(get("/api/admin/export/users").header("X-Admin-Token", "secret"))
+                .andExpect(status().isNotFound());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void requiresTheAdminToken() throws Exception {
+        mvc.perform(get("/api/admin/export/milestones"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void streamsCsvWithTheRangeFromTheQuery() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("id\n1\n".getBytes());
+            return null;
+        }).when(exportService).exportCsv(eq("milestones"), any(), any(), any());
+
+        MvcResult started = mvc.perform(get("/api/admin/export/milestones")
+                        .param("format", "csv")
+                        .param("from", "2026-09-01T00:00:00")
+                        .param("to", "2026-10-01T00:00:00")
+                        .header("X-Admin-Token", "secret"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"milestones.csv\""))
+                .andExpect(content().string("id\n1\n"));
+        verify(exportService).exportCsv(eq("milestones"),
+                eq(LocalDateTime.of(2026, 9, 1, 0, 0)), eq(LocalDateTime.of(2026, 10, 1, 0, 0)), any());
+    }
+
+    @Test
+    void defaultsToNdjson() throws Exception {
+        doAnswer(invocation -> null).when(exportService).exportNdjson(eq("chat_messages"), any(), any(), any());
+
+        MvcResult started = mvc.perform(get("/api/admin/export/chat_messages").header("X-Admin-Token", "secret"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"chat_messages.ndjson\""));
+    }
+}
@@ -0,0 +1,41 @@
+package org.devbulchandani.backend.dtos;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GithubPushEventTest {
+
+    @Test
+    void parsesRecordedPushPayload() throws Exception {
+        GithubPushEvent event = GithubPushEvent.parse(recorded("webhooks/github-push.json"));
+
+        assertEquals("refs/heads/main", event.ref());
+        assertEquals("59b20b8d5c6ff8d09518454d4dd8b7b30f095ab5", event.after());
+        assertTrue(event.isDefaultBranchPush());
+        assertTrue(event.repoUrlVariants().containsAll(List.of(
+                "https://github.com/octo-learner/task-tracker",
+                "https://github.com/octo-learner/task-tracker.git",
+                "https://github.com/octo-learner/task-tracker/"
+        )));
+    }
+
+    @Test
+    void ignoresPushesToOtherBranches() throws Exception {
+        String payload = new String(recorded("webhooks/github-push.json"))
+                .replace("\"ref\": \"refs/heads/main\"", "\"ref\": \"refs/heads/feature\"");
+
+        assertFalse(GithubPushEvent.parse(payload.getBytes()).isDefaultBranchPush());
+    }
+
+    private static byte[] recorded(String resource) throws Exception {
+        try (InputStream in = GithubPushEventTest.class.getClassLoader().getResourceAsStream(resource)) {
+            return in.readAllBytes();
+        }
+    }
+}
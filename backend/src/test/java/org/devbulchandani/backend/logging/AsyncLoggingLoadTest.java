@@ -0,0 +1,123 @@
+package org.devbulchandani.backend.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load check for the appender setup in logback-spring.xml: the same burst of events against a
+ * slow console (stdout piped to a busy collector), once written synchronously and once through
+ * the non-blocking AsyncAppender. The caller should only pay for the enqueue.
+ *
+ * <p>It compares wall-clock times, so it is left out of the regular build and runs with
+ * {@code -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AsyncLoggingLoadTest {
+    private static final org.slf4j.Logger log = LoggerFactory.getLogger(AsyncLoggingLoadTest.class);
+    private static final int WARMUP = 200;
+    private static final int EVENTS = 1_000;
+    private static final long WRITE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void asyncAppenderKeepsSlowConsoleOffTheCallingThread() {
+        SlowConsole syncConsole = new SlowConsole();
+        long syncNanos = burst(console(newContext(), syncConsole));
+
+        SlowConsole asyncConsole = new SlowConsole();
+        LoggerContext context = newContext();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.setMaxFlushTime(30_000);
+        async.addAppender(console(context, asyncConsole));
+        long asyncNanos = burst(async);
+
+        log.info("{} events: sync {} ms, async {} ms on the calling thread",
+                EVENTS, syncNanos / 1_000_000, asyncNanos / 1_000_000);
+        assertTrue(asyncNanos * 4 < syncNanos,
+                "async " + asyncNanos / 1_000_000 + " ms vs sync " + syncNanos / 1_000_000 + " ms");
+        // the queue is larger than the burst, so nothing was dropped on the way
+        assertEquals(WARMUP + EVENTS, syncConsole.lines.get());
+        assertEquals(WARMUP + EVENTS, asyncConsole.lines.get());
+    }
+
+    // times the logging calls only; stopping an async appender drains its queue afterwards
+    private static long burst(Appender<ILoggingEvent> appender) {
+        LoggerContext context = (LoggerContext) appender.getContext();
+        appender.start();
+        Logger logger = context.getLogger("payload.llm");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        log(logger, WARMUP);
+        long start = System.nanoTime();
+        log(logger, EVENTS);
+        long elapsed = System.nanoTime() - start;
+        appender.stop();
+        return elapsed;
+    }
+
+    private static LoggerContext newContext() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        return context;
+    }
+
+    private static void log(Logger logger, int events) {
+        for (int i = 0; i < events; i++) {
+            logger.info("llm response model={} latencyMs={} answer={}", "gemini", i, PayloadLog.of("answer " + i));
+        }
+    }
+
+    private static OutputStreamAppender<ILoggingEvent> console(LoggerContext context, OutputStream out) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %-5level [%thread] %logger - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(out);
+        appender.start();
+        return appender;
+    }
+
+    private static final class SlowConsole extends OutputStream {
+        private final AtomicInteger lines = new AtomicInteger();
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            LockSupport.parkNanos(WRITE_NANOS);
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.devbulchandani.backend.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadLogTest {
+
+    @Test
+    void payloadSummaryTruncatesAndHashes() {
+        String summary = PayloadLog.of("x".repeat(10_000)).toString();
+
+        assertTrue(summary.startsWith("[len=10000 sha256="));
+        assertTrue(summary.length() < 250);
+        assertEquals(summary, PayloadLog.of("x".repeat(10_000)).toString());
+    }
+}
@@ -0,0 +1,35 @@
+package org.devbulchandani.backend.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @Test
+    void keepsOneInNBelowWarnForSampledCategories() {
+        filter.addSample("payload=100");
+        filter.addSample("payload.llm=10");
+        Logger llm = context.getLogger("payload.llm");
+
+        int kept = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.decide(null, llm, Level.INFO, "llm request {}", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertEquals(100, kept);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, llm, Level.WARN, "llm request failed", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, llm, Level.INFO, null, null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, context.getLogger("org.devbulchandani"), Level.INFO, "other", null, null));
+    }
+}
@@ -0,0 +1,209 @@
+package org.devbulchandani.backend.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mysql.MySQLContainer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the hot repository methods against the migrated schema, records the statements Hibernate
+ * actually sends (with their bound values) and fails when EXPLAIN shows a full table scan or a
+ * full index scan for any of them.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+    private static final Set<String> SCAN_TYPES = Set.of("ALL", "index");
+    private static final List<String> EXECUTED = new CopyOnWriteArrayList<>();
+
+    @Container
+    static final MySQLContainer MYSQL = new MySQLContainer("mysql:8.0");
+
+    @Autowired
+    private LearningPlanRepository planRepo;
+
+    @Autowired
+    private MilestoneRepository milestoneRepo;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .load()
+                .migrate();
+
+        try (Connection c = connect()) {
+            c.setAutoCommit(false);
+            insert(c, "INSERT INTO users (email, name, created_at) VALUES (?, 'user', NOW(6))", 200,
+                    (ps, i) -> ps.setString(1, "user" + i + "@example.com"));
+            insert(c, "INSERT INTO learning_plans (user_id, project_name, duration_days, skill_level, created_at) "
+                            + "VALUES (?, 'project', 30, 'Beginner', NOW(6))", 1000,
+                    (ps, i) -> ps.setLong(1, i % 200 + 1));
+            insert(c, "INSERT INTO milestones (learning_plan_id, sequence_number, title, completed, created_at) "
+                            + "VALUES (?, ?, 'milestone', 0, NOW(6))", 4000,
+                    (ps, i) -> {
+                        ps.setLong(1, i % 1000 + 1);
+                        ps.setInt(2, i / 1000 + 1);
+                    });
+            c.commit();
+
+            try (Statement s = c.createStatement()) {
+                s.execute("ANALYZE TABLE users, learning_plans, milestones");
+            }
+        }
+    }
+
+    @BeforeEach
+    void clearRecorded() {
+        EXECUTED.clear();
+    }
+
+    @Test
+    void plansByUserEmailUseIndexes() throws SQLException {
+        planRepo.findByUserEmail("user7@example.com");
+        assertNoFullScan();
+    }
+
+    @Test
+    void planProgressByUserEmailUsesIndexes() throws SQLException {
+        planRepo.findProgressByUserEmail("user7@example.com");
+        assertNoFullScan();
+    }
+
+    @Test
+    void planVersionsUseIndexes() throws SQLException {
+        planRepo.findVersionById(42);
+        planRepo.findVersionByUserEmail("user7@example.com");
+        assertNoFullScan();
+    }
+
+    @Test
+    void milestonesByPlanUseIndex() throws SQLException {
+        planRepo.findById(42L).orElseThrow().getMilestones().size();
+        milestoneRepo.findFirstByLearningPlan_IdAndCompletedFalseOrderBySequenceNumberAsc(42);
+        assertNoFullScan();
+    }
+
+    private static void assertNoFullScan() throws SQLException {
+        assertFalse(EXECUTED.isEmpty(), "No statements were recorded");
+        for (String sql : EXECUTED) {
+            List<String> fullScans = new ArrayList<>();
+            try (Connection c = connect();
+                 Statement s = c.createStatement();
+                 ResultSet rs = s.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    if (SCAN_TYPES.contains(rs.getString("type"))) {
+                        fullScans.add(rs.getString("table") + " (" + rs.getString("type") + ")");
+                    }
+                }
+            }
+            assertTrue(fullScans.isEmpty(), "Full scan on " + fullScans + " for:\n" + sql);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+
+    private static void insert(Connection c, String sql, int rows, RowBinder binder) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < rows; i++) {
+                binder.bind(ps, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement ps, int row) throws SQLException;
+    }
+
+    /**
+     * Records every query Hibernate executes as the driver renders it. A StatementInspector
+     * would only see the SQL with its placeholders; Connector/J's client-side prepared
+     * statements print the statement with the bound values substituted, which EXPLAIN can run.
+     */
+    @TestConfiguration
+    static class RecordStatements {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[]{type},
+                    (p, method, args) -> {
+                        if (method.getName().equals("equals") && args.length == 1) {
+                            return p == args[0];
+                        }
+                        if (method.getName().equals("hashCode") && args == null) {
+                            return System.identityHashCode(p);
+                        }
+                        if (target instanceof PreparedStatement ps && method.getName().startsWith("execute")
+                                && (args == null || args.length == 0)) {
+                            String rendered = ps.unwrap(PreparedStatement.class).toString();
+                            String sql = rendered.substring(rendered.indexOf(": ") + 2);
+                            if (sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+                                EXECUTED.add(sql);
+                            }
+                        }
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (result instanceof Connection connection) {
+                            return proxy(Connection.class, connection);
+                        }
+                        if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement")) {
+                            return proxy(PreparedStatement.class, ps);
+                        }
+                        return result;
+                    }));
+        }
+    }
+}
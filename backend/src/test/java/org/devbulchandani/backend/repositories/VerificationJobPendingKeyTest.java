@@ -0,0 +1,74 @@
+package org.devbulchandani.backend.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mysql.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The migrated schema allows one pending verification job per milestone and any number of
+ * finished ones.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class VerificationJobPendingKeyTest {
+
+    @Container
+    static final MySQLContainer MYSQL = new MySQLContainer("mysql:8.0");
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .load()
+                .migrate();
+
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("INSERT INTO users (id, email, name, created_at) VALUES (1, 'u@example.com', 'user', NOW(6))");
+            s.execute("INSERT INTO learning_plans (id, user_id, project_name, duration_days, skill_level, created_at) "
+                    + "VALUES (1, 1, 'project', 30, 'Beginner', NOW(6))");
+            s.execute("INSERT INTO milestones (id, learning_plan_id, sequence_number, title, completed, created_at) "
+                    + "VALUES (1, 1, 1, 'milestone', 0, NOW(6))");
+        }
+    }
+
+    @Test
+    void secondPendingJobForAMilestoneIsRejected() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute(job("PENDING"));
+            s.execute(job("DONE"));
+            s.execute(job("DONE"));
+
+            assertThrows(SQLIntegrityConstraintViolationException.class, () -> s.execute(job("PENDING")));
+
+            // once claimed the key is free again for the next push
+            s.execute("UPDATE verification_jobs SET status = 'RUNNING' WHERE status = 'PENDING'");
+            s.execute(job("PENDING"));
+
+            try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM verification_jobs WHERE status = 'PENDING'")) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    private static String job(String status) {
+        return "INSERT INTO verification_jobs (milestone_id, repo_url, status, run_after, attempts) "
+                + "VALUES (1, 'https://github.com/owner/repo', '" + status + "', NOW(6), 0)";
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+}
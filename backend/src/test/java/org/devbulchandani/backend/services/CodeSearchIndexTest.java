@@ -0,0 +1,51 @@
+package org.devbulchandani.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeSearchIndexTest {
+
+    @Test
+    void ranksLinesMatchingAllTermsFirst() {
+        CodeSearchIndex index = new CodeSearchIndex();
+        Map<String, String> contents = Map.of(
+                "src/UserService.java", "class UserService {\n    User findByEmail(String email) {}\n}",
+                "src/PlanService.java", "class PlanService {\n    // looks up the user\n}"
+        );
+        index.update("c1", Map.of("src/UserService.java", "b1", "src/PlanService.java", "b2"), contents::get);
+
+        List<CodeSearchIndex.SearchHit> hits = index.search("findByEmail user", 10);
+
+        assertEquals("src/UserService.java", hits.get(0).path());
+        assertEquals(2, hits.get(0).line());
+        assertTrue(hits.stream().anyMatch(h -> h.path().equals("src/PlanService.java")));
+    }
+
+    @Test
+    void reindexesOnlyChangedFiles() {
+        CodeSearchIndex index = new CodeSearchIndex();
+        List<String> reads = new ArrayList<>();
+
+        index.update("c1", Map.of("a.js", "b1", "b.js", "b2"), path -> {
+            reads.add(path);
+            return path.equals("a.js") ? "const oldName = 1;" : "const other = 2;";
+        });
+        reads.clear();
+
+        index.update("c2", Map.of("a.js", "b3", "b.js", "b2"), path -> {
+            reads.add(path);
+            return "const newName = 1;";
+        });
+
+        assertEquals(List.of("a.js"), reads);
+        assertTrue(index.search("oldName", 10).isEmpty());
+        assertEquals("a.js", index.search("newName", 10).get(0).path());
+        assertEquals(1, index.search("other", 10).size());
+    }
+}
@@ -0,0 +1,43 @@
+package org.devbulchandani.backend.services;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeSearchServiceTest {
+    @TempDir
+    Path tmp;
+
+    @Test
+    void refusedUrlsDoNotEvictIndexes() throws Exception {
+        Path origin = tmp.resolve("origin");
+        Git.init().setDirectory(origin.toFile()).call().close();
+        Files.createDirectories(origin.resolve("src"));
+        Files.writeString(origin.resolve("src/Greeter.java"), "class Greeter {\n    String greet() { return \"hi\"; }\n}\n");
+        try (Git git = Git.open(origin.toFile())) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("init").setAuthor("test", "test@example.com").call();
+        }
+        RepositoryMirrorService mirrors = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 60, 1 << 20, Pattern.compile("file:.*"));
+        CodeSearchService service = new CodeSearchService(mirrors, 1);
+        String url = origin.toUri().toString();
+
+        assertEquals("src/Greeter.java", service.search(url, "greet", 10).get(0).path());
+        assertThrows(RuntimeException.class, () -> service.search("https://example.com/owner/repo", "greet", 10));
+        assertThrows(RuntimeException.class, () -> service.refresh("https://example.com/owner/repo"));
+
+        // the only slot still holds the built index
+        assertFalse(service.searchIfReady(url, "greet", 10).isEmpty());
+        assertTrue(service.searchIfReady("https://example.com/owner/repo", "greet", 10).isEmpty());
+    }
+}
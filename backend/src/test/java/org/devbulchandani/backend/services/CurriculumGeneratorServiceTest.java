@@ -0,0 +1,64 @@
+package org.devbulchandani.backend.services;
+
+import dev.langchain4j.model.chat.ChatModel;
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
+import org.devbulchandani.backend.models.LearningPlan;
+import org.devbulchandani.backend.models.User;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.devbulchandani.backend.repositories.UserRepository;
+import org.devbulchandani.backend.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurriculumGeneratorServiceTest {
+    private static final String REPO = "https://github.com/owner/todo";
+
+    private final LearningPlanRepository planRepo = mock(LearningPlanRepository.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final InvalidationBus invalidationBus = mock(InvalidationBus.class);
+    private final CurriculumGeneratorService service = new CurriculumGeneratorService(
+            mock(ChatModel.class), planRepo, mock(MilestoneRepository.class), mock(UserRepository.class), jwtUtil, invalidationBus);
+
+    @Test
+    void githubUrlIsWrittenWithoutSavingTheLoadedPlan() {
+        User owner = User.builder().email("owner@example.com").build();
+        LearningPlan loaded = LearningPlan.builder().id(7).user(owner).completedMilestones(1).build();
+        LearningPlan updated = LearningPlan.builder().id(7).user(owner).completedMilestones(2).githubUrl(REPO).build();
+        when(jwtUtil.extractEmail("token")).thenReturn("owner@example.com");
+        when(planRepo.findById(7L)).thenReturn(Optional.of(loaded), Optional.of(updated));
+
+        LearningPlan result = service.updateGithubUrl(7, REPO, "token");
+
+        verify(planRepo).updateGithubUrl(eq(7L), eq(REPO), any());
+        verify(planRepo, never()).save(any());
+        verify(invalidationBus).publish(Invalidation.plan(7));
+        // the answer is re-read, so progress recorded meanwhile is not reported stale
+        assertEquals(2, result.getCompletedMilestones());
+        assertEquals(REPO, result.getGithubUrl());
+    }
+
+    @Test
+    void githubUrlOfSomeoneElsesPlanIsRefused() {
+        User owner = User.builder().email("owner@example.com").build();
+        when(jwtUtil.extractEmail("token")).thenReturn("other@example.com");
+        when(planRepo.findById(7L)).thenReturn(Optional.of(LearningPlan.builder().id(7).user(owner).build()));
+
+        assertThrows(RuntimeException.class, () -> service.updateGithubUrl(7, REPO, "token"));
+
+        verify(planRepo, never()).updateGithubUrl(anyLong(), anyString(), any());
+    }
+}
@@ -0,0 +1,150 @@
+package org.devbulchandani.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+    private static final Timestamp CREATED = Timestamp.valueOf(LocalDateTime.of(2026, 10, 1, 12, 0));
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement ps = mock(PreparedStatement.class);
+    private final ExportService export = new ExportService(dataSource);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+    }
+
+    @Test
+    void knowsOnlyItsDatasets() {
+        assertTrue(export.isDataset("chat_messages"));
+        assertTrue(export.isDataset("milestones"));
+        assertFalse(export.isDataset("users"));
+        assertFalse(export.isDataset("chat_messages; DROP TABLE users"));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerRow() throws SQLException {
+        rows(new Object[]{1L, 7L, 0, "say \"hi\"\nthen leave", CREATED},
+                new Object[]{2L, 7L, 1, null, CREATED});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.exportNdjson("chat_messages", null, null, out);
+
+        assertEquals("""
+                {"id":1,"user_id":7,"role":0,"message":"say \\"hi\\"\\nthen leave","created_at":"2026-10-01T12:00"}
+                {"id":2,"user_id":7,"role":1,"message":null,"created_at":"2026-10-01T12:00"}
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csvQuotesValuesWithSeparatorsQuotesAndLineBreaks() throws SQLException {
+        rows(new Object[]{1L, 7L, 0, "plain", CREATED},
+                new Object[]{2L, 7L, 1, "a, b", CREATED},
+                new Object[]{3L, 7L, 1, "say \"hi\"\nbye", null});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.exportCsv("chat_messages", null, null, out);
+
+        assertEquals("""
+                id,user_id,role,message,created_at
+                1,7,0,plain,2026-10-01T12:00
+                2,7,1,"a, b",2026-10-01T12:00
+                3,7,1,"say ""hi""
+                bye",
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void fromAndToBoundTheCreationTime() throws SQLException {
+        rows();
+        LocalDateTime from = LocalDateTime.of(2026, 9, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+        export.exportCsv("milestones", from, to, new ByteArrayOutputStream());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture(), anyInt(), anyInt());
+        assertTrue(sql.getValue().endsWith("FROM milestones WHERE 1 = 1 AND created_at >= ? AND created_at < ? ORDER BY id"),
+                sql.getValue());
+        verify(ps).setObject(1, Timestamp.valueOf(from));
+        verify(ps).setObject(2, Timestamp.valueOf(to));
+        verify(ps).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    void withoutFiltersExportsTheWholeTable() throws SQLException {
+        rows();
+
+        export.exportNdjson("learning_plans", null, null, new ByteArrayOutputStream());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture(), anyInt(), anyInt());
+        assertTrue(sql.getValue().endsWith("FROM learning_plans WHERE 1 = 1 ORDER BY id"), sql.getValue());
+        verify(ps, never()).setObject(anyInt(), org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void cancelsTheQueryWhenTheClientGoesAway() throws SQLException {
+        Object[][] table = new Object[5_000][];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = new Object[]{(long) i, 7L, 0, "message " + i, CREATED};
+        }
+        ResultSet rs = rows(table);
+        OutputStream gone = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> export.exportCsv("chat_messages", null, null, gone));
+
+        // the first periodic flush fails, long before the end of the table
+        verify(rs, atMost(1_001)).next();
+        InOrder order = inOrder(ps, rs);
+        order.verify(ps).cancel();
+        order.verify(rs).close();
+    }
+
+    private ResultSet rows(Object[]... rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        AtomicInteger cursor = new AtomicInteger(-1);
+        when(rs.next()).thenAnswer(invocation -> cursor.incrementAndGet() < rows.length);
+        when(rs.getObject(anyInt())).thenAnswer(invocation -> rows[cursor.get()][(int) invocation.getArgument(0) - 1]);
+        when(ps.executeQuery()).thenReturn(rs);
+        return rs;
+    }
+}
@@ -0,0 +1,111 @@
+package org.devbulchandani.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void findsNearestNeighboursWithHighRecall() {
+        Random random = new Random(7);
+        int count = 2000;
+        float[][] vectors = new float[count][];
+        HnswIndex index = new HnswIndex(DIMENSIONS, count, 16, 100);
+        for (int i = 0; i < count; i++) {
+            vectors[i] = randomUnitVector(random);
+            index.add(vectors[i]);
+        }
+
+        double recall = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random);
+            Set<Integer> truth = IntStream.range(0, count).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -dot(query, vectors[i])))
+                    .limit(10)
+                    .collect(Collectors.toSet());
+
+            Set<Integer> found = new HashSet<>(index.search(query, 10, 64));
+            found.retainAll(truth);
+            recall += found.size() / 10.0;
+        }
+
+        assertTrue(recall / queries > 0.9, "recall was " + recall / queries);
+    }
+
+    @Test
+    void growsVectorStorageAsNodesArrive() {
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 10_000, 8, 50);
+        float[] first = randomUnitVector(random);
+        index.add(first);
+        assertTrue(index.allocatedVectors() < 10_000);
+
+        for (int i = 0; i < 1000; i++) {
+            index.add(randomUnitVector(random));
+        }
+        assertTrue(index.allocatedVectors() >= 1001);
+        assertEquals(0, index.search(first, 1, 20).get(0));
+        assertEquals(HnswIndex.toFloat(HnswIndex.toHalf(first[3])), index.vector(0)[3]);
+    }
+
+    @Test
+    void neverReturnsRemovedNodes() {
+        Random random = new Random(3);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 100, 8, 50);
+        float[] target = randomUnitVector(random);
+        int targetId = index.add(target);
+        for (int i = 0; i < 50; i++) {
+            index.add(randomUnitVector(random));
+        }
+
+        assertEquals(targetId, index.search(target, 1, 20).get(0));
+
+        index.remove(targetId);
+        List<Integer> result = index.search(target, 10, 20);
+        assertFalse(result.contains(targetId));
+        assertEquals(10, result.size());
+    }
+
+    @Test
+    void storesVectorsAsHalfPrecision() {
+        for (float value : new float[]{0f, 1f, -1f, 0.333f, -0.7071f, 1e-5f}) {
+            float roundTrip = HnswIndex.toFloat(HnswIndex.toHalf(value));
+            assertEquals(value, roundTrip, Math.max(Math.abs(value) * 1e-3, 1e-7));
+        }
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] v = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            v[i] /= norm;
+        }
+        return v;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double d = 0;
+        for (int i = 0; i < a.length; i++) {
+            d += a[i] * b[i];
+        }
+        return d;
+    }
+}
@@ -0,0 +1,79 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
+import org.devbulchandani.backend.cluster.InvalidationTransport;
+import org.devbulchandani.backend.dtos.MilestoneContextDto;
+import org.devbulchandani.backend.dtos.PlanContextDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LearningContextServiceTest {
+
+    private final InvalidationBus bus = new InvalidationBus(InvalidationTransport.localOnly());
+    private final AtomicInteger loads = new AtomicInteger();
+    private volatile String projectName = "Todo API";
+    private volatile Runnable afterLoad;
+
+    private LearningContextService contexts(long ttlMinutes) {
+        return new LearningContextService(bus, planId -> {
+            loads.incrementAndGet();
+            LearningContextService.PlanSnapshot snapshot = new LearningContextService.PlanSnapshot(
+                    new PlanContextDto(projectName, "REST API", 30, "Beginner"),
+                    List.of(new MilestoneContextDto(1, "Routes", "add routes", false)));
+            Runnable hook = afterLoad;
+            if (hook != null) {
+                hook.run();
+            }
+            return snapshot;
+        }, 100, ttlMinutes);
+    }
+
+    @Test
+    void cachesRenderingUntilThePlanIsInvalidated() {
+        LearningContextService contexts = contexts(30);
+
+        String first = contexts.buildPlanContext(7);
+        contexts.buildPlanContext(7);
+        assertEquals(1, loads.get());
+        assertTrue(first.contains("M1 [PENDING]: Routes -> add routes"), first);
+
+        bus.publish(Invalidation.plan(7));
+        contexts.buildPlanContext(7);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void planLoadedBeforeAnInvalidationIsNotCached() {
+        LearningContextService contexts = contexts(30);
+        // the plan changes right after it was read, before it is rendered
+        afterLoad = () -> {
+            projectName = "Renamed";
+            bus.publish(Invalidation.plan(7));
+        };
+
+        String stale = contexts.buildPlanContext(7);
+        afterLoad = null;
+        String fresh = contexts.buildPlanContext(7);
+
+        assertTrue(stale.contains("Project: Todo API"), stale);
+        assertTrue(fresh.contains("Project: Renamed"), fresh);
+        assertEquals(fresh, contexts.buildPlanContext(7));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void renderingsExpireAfterTheTtl() {
+        LearningContextService contexts = contexts(0);
+
+        contexts.buildPlanContext(7);
+        contexts.buildPlanContext(7);
+
+        assertEquals(2, loads.get());
+    }
+}
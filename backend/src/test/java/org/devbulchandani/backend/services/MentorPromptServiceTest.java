@@ -0,0 +1,134 @@
+package org.devbulchandani.backend.services;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.service.AiServices;
+import org.devbulchandani.backend.cluster.Invalidation;
+import org.devbulchandani.backend.cluster.InvalidationBus;
+import org.devbulchandani.backend.cluster.InvalidationTransport;
+import org.devbulchandani.backend.dtos.MentorBot;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends prompts through a real AI service backed by a fake model and checks what would reach
+ * Gemini: everything before the per-turn suffix has to be the same bytes on every turn.
+ */
+class MentorPromptServiceTest {
+
+    @TempDir
+    Path tmp;
+
+    private final RecordingChatModel model = new RecordingChatModel();
+    private MentorBot mentorBot;
+    private InvalidationBus bus;
+    private MentorPromptService prompts;
+    private Path origin;
+    private String repoUrl;
+    private String planContext = "=== LEARNING PLAN CONTEXT ===\nProject: Todo API\nM1 [PENDING]: Routes -> add routes\n";
+
+    @BeforeEach
+    void setUp() throws Exception {
+        origin = tmp.resolve("origin");
+        Git.init().setDirectory(origin.toFile()).call().close();
+        commit("src/App.java", "class App {}");
+        repoUrl = origin.toUri().toString();
+
+        RepositoryMirrorService mirrors = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, Pattern.compile("file:.*"));
+        bus = new InvalidationBus(InvalidationTransport.localOnly());
+        prompts = new MentorPromptService(mirrors, bus, 30, 100);
+        mentorBot = AiServices.builder(MentorBot.class).chatModel(model).build();
+    }
+
+    @Test
+    void prefixIsByteIdenticalAcrossTurns() {
+        mentorBot.chat(prompts.chatPrompt(1, repoUrl, () -> planContext, "How do I add a route?", "code A"));
+        mentorBot.chat(prompts.chatPrompt(1, repoUrl, () -> planContext, "Why does my test fail?", "code B"));
+        mentorBot.chat(prompts.reviewPrompt(1, repoUrl, () -> planContext, "=== CURRENT MILESTONE ===\nM1", "code C"));
+
+        assertEquals(3, model.requests.size());
+        byte[] first = requestPrefix(model.requests.get(0));
+        assertTrue(new String(first, StandardCharsets.UTF_8).contains("src/App.java"));
+        for (ChatRequest request : model.requests) {
+            assertArrayEquals(first, requestPrefix(request));
+        }
+    }
+
+    @Test
+    void prefixIsRebuiltOnInvalidationAndNewCommit() throws Exception {
+        String before = prompts.prefix(1, repoUrl, () -> planContext);
+
+        planContext = planContext.replace("[PENDING]", "[DONE]");
+        assertEquals(before, prompts.prefix(1, repoUrl, () -> planContext));
+
+        bus.publish(Invalidation.plan(1));
+        String afterInvalidation = prompts.prefix(1, repoUrl, () -> planContext);
+        assertTrue(afterInvalidation.contains("[DONE]"));
+
+        commit("src/Routes.java", "class Routes {}");
+        String afterPush = prompts.prefix(1, repoUrl, () -> planContext);
+        assertNotEquals(afterInvalidation, afterPush);
+        assertTrue(afterPush.contains("src/Routes.java"));
+    }
+
+    // system message and the user message up to the per-turn header, as sent to the model
+    private static byte[] requestPrefix(ChatRequest request) {
+        StringBuilder sb = new StringBuilder();
+        for (ChatMessage message : request.messages()) {
+            if (message instanceof UserMessage user) {
+                String text = user.singleText();
+                int suffix = Math.min(
+                        indexOrLength(text, MentorPromptService.USER_QUESTION_HEADER),
+                        indexOrLength(text, MentorPromptService.REVIEW_TASK_HEADER));
+                sb.append(text, 0, suffix);
+            } else {
+                sb.append(message).append('\n');
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int indexOrLength(String text, String marker) {
+        int index = text.indexOf(marker);
+        return index < 0 ? text.length() : index;
+    }
+
+    private void commit(String file, String content) throws Exception {
+        Path path = origin.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        try (Git git = Git.open(origin.toFile())) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("update " + file).setAuthor("test", "test@example.com").call();
+        }
+    }
+
+    private static class RecordingChatModel implements ChatModel {
+        private final List<ChatRequest> requests = new ArrayList<>();
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            requests.add(request);
+            return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+        }
+    }
+}
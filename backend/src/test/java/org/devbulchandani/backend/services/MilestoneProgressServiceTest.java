@@ -0,0 +1,45 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MilestoneProgressServiceTest {
+    private final MilestoneRepository milestoneRepo = mock(MilestoneRepository.class);
+    private final LearningPlanRepository planRepo = mock(LearningPlanRepository.class);
+    private final MilestoneProgressService progress = new MilestoneProgressService(milestoneRepo, planRepo);
+
+    @Test
+    void completingAMilestoneCountsItOnce() {
+        when(milestoneRepo.updateCompleted(eq(11L), eq(true), any())).thenReturn(1);
+
+        progress.recordVerification(1, 11, true);
+
+        verify(planRepo).recordVerification(eq(1L), eq(1), any());
+    }
+
+    @Test
+    void reopeningACompletedMilestoneTakesItBack() {
+        when(milestoneRepo.updateCompleted(eq(11L), eq(false), any())).thenReturn(1);
+
+        progress.recordVerification(1, 11, false);
+
+        verify(planRepo).recordVerification(eq(1L), eq(-1), any());
+    }
+
+    @Test
+    void unchangedOutcomeOnlyStampsTheVerificationTime() {
+        // a second verification with the same result, e.g. a concurrent one, flips nothing
+        when(milestoneRepo.updateCompleted(eq(11L), eq(true), any())).thenReturn(0);
+
+        progress.recordVerification(1, 11, true);
+
+        verify(planRepo).recordVerification(eq(1L), eq(0), any());
+    }
+}
@@ -0,0 +1,66 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.dtos.PlanVersion;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlanVersionServiceTest {
+    private static final LocalDateTime PLAN_UPDATED = LocalDateTime.of(2026, 10, 1, 12, 0);
+    private static final LocalDateTime MILESTONE_UPDATED = LocalDateTime.of(2026, 10, 1, 13, 0);
+
+    private final LearningPlanRepository planRepo = mock(LearningPlanRepository.class);
+    private final PlanVersionService versions = new PlanVersionService(planRepo, mock(JwtUtil.class));
+
+    @Test
+    void sameVersionGivesTheSameEtag() {
+        when(planRepo.findVersionById(1)).thenReturn(new PlanVersion(1, 4, PLAN_UPDATED, MILESTONE_UPDATED));
+
+        assertThat(versions.planEtag(1)).isEqualTo(versions.planEtag(1)).matches("\"[0-9a-f]{32}\"");
+    }
+
+    @Test
+    void planUpdateChangesTheEtag() {
+        when(planRepo.findVersionById(1)).thenReturn(new PlanVersion(1, 4, PLAN_UPDATED, MILESTONE_UPDATED));
+        String before = versions.planEtag(1);
+
+        when(planRepo.findVersionById(1))
+                .thenReturn(new PlanVersion(1, 4, PLAN_UPDATED.plusSeconds(1), MILESTONE_UPDATED));
+
+        assertThat(versions.planEtag(1)).isNotEqualTo(before);
+    }
+
+    @Test
+    void milestoneUpdateChangesTheEtag() {
+        when(planRepo.findVersionById(1)).thenReturn(new PlanVersion(1, 4, PLAN_UPDATED, MILESTONE_UPDATED));
+        String before = versions.planEtag(1);
+
+        when(planRepo.findVersionById(1))
+                .thenReturn(new PlanVersion(1, 4, PLAN_UPDATED, MILESTONE_UPDATED.plusSeconds(1)));
+
+        assertThat(versions.planEtag(1)).isNotEqualTo(before);
+    }
+
+    @Test
+    void addedMilestoneChangesTheEtag() {
+        when(planRepo.findVersionById(1)).thenReturn(new PlanVersion(1, 4, PLAN_UPDATED, MILESTONE_UPDATED));
+        String before = versions.planEtag(1);
+
+        when(planRepo.findVersionById(1)).thenReturn(new PlanVersion(1, 5, PLAN_UPDATED, MILESTONE_UPDATED));
+
+        assertThat(versions.planEtag(1)).isNotEqualTo(before);
+    }
+
+    @Test
+    void representationsOfTheSamePlanHaveDifferentEtags() {
+        when(planRepo.findVersionById(1)).thenReturn(new PlanVersion(1, 4, PLAN_UPDATED, MILESTONE_UPDATED));
+
+        assertThat(versions.planContextEtag(1)).isNotEqualTo(versions.planEtag(1));
+    }
+}
@@ -0,0 +1,253 @@
+package org.devbulchandani.backend.services;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryMirrorServiceTest {
+    // the tests mirror local repositories, which the production allow-list refuses
+    private static final Pattern LOCAL_REPOS = Pattern.compile("file:.*");
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void readsFilesFromLocalMirror() throws Exception {
+        Path origin = createRepo("origin", "src/Main.java", "class Main {}");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 60, 1 << 20, LOCAL_REPOS);
+
+        String url = origin.toUri().toString();
+
+        assertEquals("class Main {}", service.readFile(url, "src/Main.java"));
+        assertTrue(service.listFiles(url).contains("src/Main.java"));
+        assertThrows(RuntimeException.class, () -> service.readFile(url, "../outside.txt"));
+    }
+
+    @Test
+    void refusesSymlinksThatLeaveTheRepository() throws Exception {
+        Path secret = Files.writeString(tmp.resolve("secret.txt"), "token");
+        Path origin = createRepo("origin", "README.md", "readme");
+        Files.createSymbolicLink(origin.resolve("leak.txt"), secret);
+        Files.createSymbolicLink(origin.resolve("docs.md"), Path.of("README.md"));
+        try (Git git = Git.open(origin.toFile())) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("links").setAuthor("test", "test@example.com").call();
+        }
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 60, 1 << 20, LOCAL_REPOS);
+
+        String url = origin.toUri().toString();
+
+        assertTrue(Files.isSymbolicLink(service.checkout(url).resolve("leak.txt")));
+        assertThrows(RuntimeException.class, () -> service.readFile(url, "leak.txt"));
+        assertEquals("readme", service.readFile(url, "docs.md"));
+        assertFalse(service.listFiles(url).contains("leak.txt"));
+    }
+
+    @Test
+    void fetchesNewCommitsOnceStale() throws Exception {
+        Path origin = createRepo("origin", "README.md", "v1");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, LOCAL_REPOS);
+
+        String url = origin.toUri().toString();
+        assertEquals("v1", service.readFile(url, "README.md"));
+
+        commit(origin, "README.md", "v2");
+        assertEquals("v2", service.readFile(url, "README.md"));
+    }
+
+    @Test
+    void servesTheStaleMirrorAndBacksOffWhenAFetchFails() throws Exception {
+        Path origin = createRepo("origin", "README.md", "v1");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, LOCAL_REPOS);
+
+        String url = origin.toUri().toString();
+        assertEquals("v1", service.readFile(url, "README.md"));
+
+        Path moved = Files.move(origin, tmp.resolve("moved"));
+        assertEquals("v1", service.readFile(url, "README.md"));
+
+        Files.move(moved, origin);
+        commit(origin, "README.md", "v2");
+        assertEquals("v1", service.readFile(url, "README.md"));
+    }
+
+    @Test
+    void failsWhenTheFirstCloneFails() {
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, LOCAL_REPOS);
+
+        String url = tmp.resolve("missing").toUri().toString();
+        assertThrows(RuntimeException.class, () -> service.readFile(url, "README.md"));
+        assertThrows(RuntimeException.class, () -> service.headCommit(url));
+    }
+
+    @Test
+    void readsBlobsOfAnIndexedCommitAfterTheMirrorMovedOn() throws Exception {
+        Path origin = createRepo("origin", "src/Main.java", "class Main {}");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, LOCAL_REPOS);
+
+        String url = origin.toUri().toString();
+        String indexedBlob = service.sourceFiles(url).blobs().get("src/Main.java");
+
+        commit(origin, "src/Main.java", "class Main { int moved; }");
+        assertEquals("class Main { int moved; }", service.readFile(url, "src/Main.java"));
+        assertEquals("class Main {}", service.readBlob(url, indexedBlob));
+        assertThrows(RuntimeException.class, () -> service.readBlob(url, "0".repeat(40)));
+    }
+
+    @Test
+    void sourceFilesReadTheListedCommitWhileTheMirrorIsFetched() throws Exception {
+        Path origin = createRepo("origin", "src/Main.java", "class Main {}");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, LOCAL_REPOS);
+        String url = origin.toUri().toString();
+
+        String content = service.withSourceFiles(url, (snapshot, blobs) -> {
+            try {
+                commit(origin, "src/Main.java", "class Main { int moved; }");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            // another reader refreshes the mirror in the middle of the update
+            assertEquals("class Main { int moved; }", service.readFile(url, "src/Main.java"));
+            return blobs.apply(snapshot.blobs().get("src/Main.java"));
+        });
+
+        assertEquals("class Main {}", content);
+    }
+
+    @Test
+    void cachedHeadNeverFetches() throws Exception {
+        Path origin = createRepo("origin", "README.md", "v1");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 0, 1 << 20, LOCAL_REPOS);
+        String url = origin.toUri().toString();
+        assertNull(service.cachedHeadCommit(url));
+
+        String first = service.headCommit(url);
+        commit(origin, "README.md", "v2");
+
+        // the mirror is past its freshness window, yet the cached read stays on disk
+        assertEquals(first, service.cachedHeadCommit(url));
+        service.invalidate(url);
+        assertNull(service.cachedHeadCommit(url));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMirrorWhenOverBudget() throws Exception {
+        Path first = createRepo("first", "a.txt", "a".repeat(4096));
+        Path second = createRepo("second", "b.txt", "b".repeat(4096));
+        Path mirrors = tmp.resolve("mirrors");
+        RepositoryMirrorService service = new RepositoryMirrorService(mirrors.toString(), 1, 60, 1 << 20, LOCAL_REPOS);
+
+        Path firstMirror = service.checkout(first.toUri().toString());
+        Path secondMirror = service.checkout(second.toUri().toString());
+
+        assertFalse(Files.exists(firstMirror));
+        assertTrue(Files.exists(secondMirror.resolve("b.txt")));
+    }
+
+    @Test
+    void keepsLeasedMirrorUntilItsReadIsDone() throws Exception {
+        Path first = createRepo("first", "a.txt", "a".repeat(4096));
+        Path second = createRepo("second", "b.txt", "b".repeat(4096));
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1, 60, 1 << 20, LOCAL_REPOS);
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> slowRead = CompletableFuture.supplyAsync(() ->
+                service.withMirror(first.toUri().toString(), dir -> {
+                    reading.countDown();
+                    try {
+                        release.await();
+                        return Files.readString(dir.resolve("a.txt"));
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+        assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+        Path firstMirror = service.checkout(first.toUri().toString());
+        service.checkout(second.toUri().toString());
+        assertTrue(Files.exists(firstMirror.resolve("a.txt")));
+
+        release.countDown();
+        assertEquals("a".repeat(4096), slowRead.get(10, TimeUnit.SECONDS));
+
+        service.checkout(second.toUri().toString());
+        assertFalse(Files.exists(firstMirror));
+    }
+
+    @Test
+    void clearsOnlyItsOwnDirectoriesAtStartup() throws Exception {
+        Path mirrors = Files.createDirectories(tmp.resolve("mirrors"));
+        Path leftover = Files.createDirectories(mirrors.resolve("0123456789abcdef0123456789abcdef"));
+        Path evicted = Files.createDirectories(mirrors.resolve("0123456789abcdef0123456789abcdef.evicted-3"));
+        Path unrelated = Files.writeString(mirrors.resolve("notes.txt"), "keep");
+        Path otherDir = Files.createDirectories(mirrors.resolve("cache"));
+
+        new RepositoryMirrorService(mirrors.toString(), 1 << 30, 60, 1 << 20, LOCAL_REPOS);
+
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(evicted));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(otherDir));
+    }
+
+    @Test
+    void refusesRepositoriesOutsideGithub() throws Exception {
+        Path origin = createRepo("origin", "README.md", "readme");
+        RepositoryMirrorService service = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 60, 1 << 20);
+
+        for (String url : new String[] {
+                origin.toUri().toString(),
+                "ssh://git@github.com/owner/repo",
+                "http://github.com/owner/repo",
+                "https://github.com.internal/owner/repo",
+                "https://169.254.169.254/owner/repo",
+                "https://github.com/owner/repo/../../other",
+                "https://github.com/../repo"}) {
+            assertThrows(RuntimeException.class, () -> service.readFile(url, "README.md"), url);
+        }
+        try (var dirs = Files.list(tmp.resolve("mirrors"))) {
+            assertEquals(0, dirs.count());
+        }
+    }
+
+    private Path createRepo(String name, String file, String content) throws Exception {
+        Path dir = tmp.resolve(name);
+        Git.init().setDirectory(dir.toFile()).call().close();
+        commit(dir, file, content);
+        return dir;
+    }
+
+    private void commit(Path repo, String file, String content) throws Exception {
+        Path path = repo.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        try (Git git = Git.open(repo.toFile())) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("update " + file).setAuthor("test", "test@example.com").call();
+        }
+    }
+}
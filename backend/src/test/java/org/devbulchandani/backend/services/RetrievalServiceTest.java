@@ -0,0 +1,120 @@
+package org.devbulchandani.backend.services;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetrievalServiceTest {
+    private static final int DIMENSIONS = 64;
+
+    @TempDir
+    Path tmp;
+
+    private final GatedEmbeddingModel model = new GatedEmbeddingModel();
+    private RetrievalService service;
+
+    @AfterEach
+    void tearDown() {
+        model.indexing.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void answersFromTrigramSearchUntilTheEmbeddingIndexIsBuilt() throws Exception {
+        Path origin = tmp.resolve("origin");
+        Git.init().setDirectory(origin.toFile()).call().close();
+        Files.createDirectories(origin.resolve("src"));
+        Files.writeString(origin.resolve("src/Greeter.java"), "class Greeter {\n    String greet() { return \"hi\"; }\n}\n");
+        Files.writeString(origin.resolve("src/Other.java"), "class Other {}\n");
+        try (Git git = Git.open(origin.toFile())) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("init").setAuthor("test", "test@example.com").call();
+        }
+
+        RepositoryMirrorService mirrors = new RepositoryMirrorService(
+                tmp.resolve("mirrors").toString(), 1 << 30, 60, 1 << 20, Pattern.compile("file:.*"));
+        service = new RetrievalService(mirrors, new CodeSearchService(mirrors, 4), model, true, 3, 1000, 4);
+        String url = origin.toUri().toString();
+
+        // the indexer builds the trigram index and then gets stuck embedding; questions are
+        // answered from the trigram index meanwhile, and never wait for either build
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String cold = "";
+        while (!cold.contains("src/Greeter.java") && System.nanoTime() < deadline) {
+            cold = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> service.relevantCode(url, "greet"));
+            Thread.sleep(20);
+        }
+        assertTrue(cold.contains("src/Greeter.java"), cold);
+        assertTrue(cold.contains("String greet()"), cold);
+        assertTrue(model.queries.isEmpty());
+
+        model.indexing.countDown();
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String warm = "";
+        while (model.queries.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            warm = service.relevantCode(url, "greet");
+        }
+        assertTrue(model.queries.contains("greet"), "the embedding index was never used");
+        assertTrue(warm.contains("src/Greeter.java"), warm);
+    }
+
+    /**
+     * Bag-of-words embeddings; calls from the indexer thread wait until {@link #indexing} opens.
+     */
+    private static final class GatedEmbeddingModel implements EmbeddingModel {
+        private final CountDownLatch indexing = new CountDownLatch(1);
+        private final List<String> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            if (Thread.currentThread().getName().equals("retrieval-indexer")) {
+                try {
+                    indexing.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                segments.forEach(s -> queries.add(s.text()));
+            }
+
+            List<Embedding> embeddings = new ArrayList<>();
+            for (TextSegment segment : segments) {
+                float[] vector = new float[DIMENSIONS];
+                for (String word : segment.text().toLowerCase(Locale.ROOT).split("\\W+")) {
+                    if (!word.isEmpty()) {
+                        vector[Math.floorMod(word.hashCode(), DIMENSIONS)] += 1;
+                    }
+                }
+                embeddings.add(Embedding.from(vector));
+            }
+            return Response.from(embeddings);
+        }
+
+        @Override
+        public int dimension() {
+            return DIMENSIONS;
+        }
+    }
+}
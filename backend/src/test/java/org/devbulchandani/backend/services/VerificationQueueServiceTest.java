@@ -0,0 +1,157 @@
+package org.devbulchandani.backend.services;
+
+import org.devbulchandani.backend.dtos.GithubPushEvent;
+import org.devbulchandani.backend.models.LearningPlan;
+import org.devbulchandani.backend.models.Milestone;
+import org.devbulchandani.backend.models.VerificationJob;
+import org.devbulchandani.backend.models.VerificationJobStatus;
+import org.devbulchandani.backend.repositories.LearningPlanRepository;
+import org.devbulchandani.backend.repositories.MilestoneRepository;
+import org.devbulchandani.backend.repositories.VerificationJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerificationQueueServiceTest {
+    private static final String REPO = "https://github.com/owner/todo";
+    private static final String PUSHED = "a".repeat(40);
+
+    private final VerificationJobRepository jobRepo = mock(VerificationJobRepository.class);
+    private final LearningPlanRepository planRepo = mock(LearningPlanRepository.class);
+    private final MilestoneRepository milestoneRepo = mock(MilestoneRepository.class);
+    private final VerificationService verificationService = mock(VerificationService.class);
+    private final RepositoryMirrorService mirrorService = mock(RepositoryMirrorService.class);
+    private final RetrievalService retrievalService = mock(RetrievalService.class);
+    private VerificationQueueService queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new VerificationQueueService(jobRepo, planRepo, milestoneRepo, verificationService,
+                mirrorService, retrievalService, 30, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void pushQueuesThePendingMilestoneAfterTheDebounceDelay() {
+        LearningPlan withPending = LearningPlan.builder().id(1).githubUrl(REPO).build();
+        LearningPlan allDone = LearningPlan.builder().id(2).githubUrl(REPO + ".git").build();
+        when(planRepo.findByGithubUrlIn(any())).thenReturn(List.of(withPending, allDone));
+        when(milestoneRepo.findFirstByLearningPlan_IdAndCompletedFalseOrderBySequenceNumberAsc(1))
+                .thenReturn(Optional.of(Milestone.builder().id(11).build()));
+        when(milestoneRepo.findFirstByLearningPlan_IdAndCompletedFalseOrderBySequenceNumberAsc(2))
+                .thenReturn(Optional.empty());
+
+        LocalDateTime before = LocalDateTime.now();
+        int queued = queue.enqueuePush(push());
+
+        assertEquals(1, queued);
+        ArgumentCaptor<LocalDateTime> runAfter = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobRepo).upsertPending(eq(11L), eq(REPO), eq(PUSHED), runAfter.capture(), any());
+        assertTrue(!runAfter.getValue().isBefore(before.plusSeconds(30)), "run after " + runAfter.getValue());
+        verify(mirrorService).invalidate(REPO);
+    }
+
+    @Test
+    void runsOnlyJobsItClaimsAndFetchesThePushedCommitFirst() {
+        VerificationJob won = job(1, 11, 1);
+        VerificationJob lost = job(2, 12, 1);
+        when(jobRepo.findByStatusAndRunAfterLessThanEqualOrderByRunAfterAsc(eq(VerificationJobStatus.PENDING), any(), any()))
+                .thenReturn(List.of(won, lost));
+        when(jobRepo.claim(eq(1L), any(), eq(VerificationJobStatus.PENDING), eq(VerificationJobStatus.RUNNING))).thenReturn(1);
+        when(jobRepo.claim(eq(2L), any(), eq(VerificationJobStatus.PENDING), eq(VerificationJobStatus.RUNNING))).thenReturn(0);
+        when(jobRepo.findById(1L)).thenReturn(Optional.of(won));
+        when(verificationService.runVerification(11)).thenReturn(new VerificationService.Outcome(PUSHED, "COMPLETED", true));
+
+        queue.dispatchDueJobs();
+
+        verify(jobRepo, timeout(5000)).save(won);
+        InOrder order = inOrder(mirrorService, verificationService);
+        order.verify(mirrorService).fetchCommit(REPO, PUSHED);
+        order.verify(verificationService).runVerification(11);
+        verify(verificationService, never()).runVerification(12);
+        assertEquals(VerificationJobStatus.DONE, won.getStatus());
+        assertEquals(PUSHED, won.getCommitId());
+    }
+
+    @Test
+    void failedRunIsRetriedWithBackoffUntilAttemptsRunOut() {
+        VerificationJob retried = job(1, 11, 2);
+        VerificationJob exhausted = job(2, 12, 3);
+        when(jobRepo.findByStatusAndRunAfterLessThanEqualOrderByRunAfterAsc(eq(VerificationJobStatus.PENDING), any(), any()))
+                .thenReturn(List.of(retried, exhausted));
+        when(jobRepo.claim(anyLong(), any(), any(), any())).thenReturn(1);
+        when(jobRepo.findById(1L)).thenReturn(Optional.of(retried));
+        when(jobRepo.findById(2L)).thenReturn(Optional.of(exhausted));
+        when(verificationService.runVerification(anyLong())).thenThrow(new RuntimeException("model unavailable"));
+
+        LocalDateTime before = LocalDateTime.now();
+        queue.dispatchDueJobs();
+
+        ArgumentCaptor<LocalDateTime> runAfter = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobRepo, timeout(5000)).requeue(eq(1L), runAfter.capture(), any(),
+                eq(VerificationJobStatus.PENDING), eq(VerificationJobStatus.RUNNING));
+        // backoff grows with the attempts already made: 2 x 30s
+        assertTrue(!runAfter.getValue().isBefore(before.plus(Duration.ofSeconds(60))), "run after " + runAfter.getValue());
+
+        verify(jobRepo, timeout(5000)).save(exhausted);
+        assertEquals(VerificationJobStatus.FAILED, exhausted.getStatus());
+        assertEquals("model unavailable", exhausted.getFeedback());
+    }
+
+    @Test
+    void retryGivesWayToAJobQueuedByANewerPush() {
+        VerificationJob job = job(1, 11, 1);
+        when(jobRepo.findByStatusAndRunAfterLessThanEqualOrderByRunAfterAsc(eq(VerificationJobStatus.PENDING), any(), any()))
+                .thenReturn(List.of(job));
+        when(jobRepo.claim(anyLong(), any(), any(), any())).thenReturn(1);
+        when(jobRepo.findById(1L)).thenReturn(Optional.of(job));
+        when(verificationService.runVerification(11)).thenThrow(new RuntimeException("model unavailable"));
+        when(jobRepo.requeue(anyLong(), any(), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for uq_verification_jobs_pending_milestone"));
+
+        queue.dispatchDueJobs();
+
+        verify(jobRepo, timeout(5000)).fail(eq(1L), eq("Superseded by a newer push"), any(),
+                eq(VerificationJobStatus.RUNNING), eq(VerificationJobStatus.FAILED));
+    }
+
+    private static VerificationJob job(long id, long milestoneId, int attempts) {
+        return VerificationJob.builder()
+                .id(id)
+                .milestoneId(milestoneId)
+                .repoUrl(REPO)
+                .pushedCommit(PUSHED)
+                .status(VerificationJobStatus.RUNNING)
+                .runAfter(LocalDateTime.now())
+                .attempts(attempts)
+                .build();
+    }
+
+    private static GithubPushEvent push() {
+        return new GithubPushEvent("refs/heads/main", PUSHED, false, "main", List.of(REPO));
+    }
+}
@@ -0,0 +1,52 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.mcp.client.McpClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class LazyMcpEndpointTest {
+
+    @Test
+    void closeDoesNotWaitForAConnectInProgress() throws Exception {
+        CountDownLatch connecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        McpClient client = mock(McpClient.class);
+        LazyMcpEndpoint endpoint = new LazyMcpEndpoint("slow", () -> {
+            connecting.countDown();
+            await(release);
+            return client;
+        }, "read_file");
+
+        CompletableFuture<Void> probe = CompletableFuture.runAsync(endpoint::checkHealth);
+        assertTrue(connecting.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), endpoint::close);
+
+        // the client that connected after close is dropped, not handed out
+        release.countDown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> probe.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        verify(client, timeout(5000)).close();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
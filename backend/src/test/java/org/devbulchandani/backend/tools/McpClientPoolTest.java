@@ -0,0 +1,233 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.service.tool.ToolExecutor;
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderRequest;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import org.devbulchandani.backend.dtos.McpEndpointStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class McpClientPoolTest {
+
+    private static final ToolExecutionRequest READ_FILE = ToolExecutionRequest.builder()
+            .id("1")
+            .name("read_file")
+            .arguments("{\"path\":\"README.md\"}")
+            .build();
+
+    private McpClientPool pool;
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void sendsCallsToTheEndpointWithFewestInFlight() throws Exception {
+        StubEndpoint slow = new StubEndpoint("slow");
+        StubEndpoint fast = new StubEndpoint("fast");
+        slow.gate = new CountDownLatch(1);
+        pool = new McpClientPool(List.of(slow, fast), 3, Duration.ofSeconds(30));
+        ToolExecutor readFile = executor(pool);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // one call stuck on "slow" makes every following call go to "fast"
+            Future<String> stuck = null;
+            while (stuck == null) {
+                Future<String> call = callers.submit(() -> readFile.execute(READ_FILE, null));
+                TimeUnit.MILLISECONDS.sleep(50);
+                if (slow.calls.get() == 1) {
+                    stuck = call;
+                } else {
+                    call.get();
+                }
+            }
+            int fastBefore = fast.calls.get();
+            for (int i = 0; i < 5; i++) {
+                assertEquals("fast", readFile.execute(READ_FILE, null));
+            }
+            assertEquals(fastBefore + 5, fast.calls.get());
+
+            slow.gate.countDown();
+            assertEquals("slow", stuck.get(5, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void ejectsFailingEndpointAndRetriesElsewhere() {
+        StubEndpoint broken = new StubEndpoint("broken");
+        StubEndpoint healthy = new StubEndpoint("healthy");
+        broken.failing = true;
+        // a slower healthy endpoint keeps the fast-failing one first in line until it is ejected
+        healthy.delayMillis = 20;
+        pool = new McpClientPool(List.of(broken, healthy), 2, Duration.ofMinutes(5));
+        ToolExecutor readFile = executor(pool);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("healthy", readFile.execute(READ_FILE, null));
+        }
+
+        assertEquals(2, broken.calls.get());
+        McpEndpointStatsDto brokenStats = stats(pool, "broken");
+        assertFalse(brokenStats.healthy());
+        assertEquals(2, brokenStats.failures());
+        assertEquals(10, stats(pool, "healthy").calls());
+    }
+
+    @Test
+    void probeBringsEjectedEndpointBack() throws InterruptedException {
+        StubEndpoint flaky = new StubEndpoint("flaky");
+        flaky.failing = true;
+        pool = new McpClientPool(List.of(flaky), 1, Duration.ofMillis(200));
+        ToolExecutor readFile = executor(pool);
+
+        assertThrows(RuntimeException.class, () -> readFile.execute(READ_FILE, null));
+        assertFalse(stats(pool, "flaky").healthy());
+
+        flaky.failing = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!stats(pool, "flaky").healthy() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertTrue(stats(pool, "flaky").healthy());
+        assertEquals("flaky", readFile.execute(READ_FILE, null));
+    }
+
+    @Test
+    void hangingProbeDoesNotHoldBackOtherEndpoints() throws InterruptedException {
+        StubEndpoint hung = new StubEndpoint("hung");
+        StubEndpoint flaky = new StubEndpoint("flaky");
+        hung.failing = true;
+        flaky.failing = true;
+        pool = new McpClientPool(List.of(hung, flaky), 1, Duration.ofMillis(200), Duration.ofMillis(100));
+        ToolExecutor readFile = executor(pool);
+
+        assertThrows(RuntimeException.class, () -> readFile.execute(READ_FILE, null));
+        assertFalse(stats(pool, "hung").healthy());
+        assertFalse(stats(pool, "flaky").healthy());
+
+        hung.healthGate = new CountDownLatch(1);
+        flaky.failing = false;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!stats(pool, "flaky").healthy() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            assertTrue(stats(pool, "flaky").healthy());
+            assertFalse(stats(pool, "hung").healthy());
+            // the stuck check is never joined by a second one
+            assertEquals(1, hung.healthChecks.get());
+        } finally {
+            hung.healthGate.countDown();
+        }
+    }
+
+    @Test
+    void listsToolsOnceAcrossTurns() {
+        StubEndpoint endpoint = new StubEndpoint("only");
+        pool = new McpClientPool(List.of(endpoint), 3, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, pool.provideTools(null).tools().size());
+        }
+        assertEquals(1, endpoint.listings.get());
+    }
+
+    private static ToolExecutor executor(McpClientPool pool) {
+        return pool.provideTools(null).tools().values().iterator().next();
+    }
+
+    private static McpEndpointStatsDto stats(McpClientPool pool, String name) {
+        return pool.stats().stream().filter(s -> s.endpoint().equals(name)).findFirst().orElseThrow();
+    }
+
+    // stands in for an analyzer server: one read_file tool answering with the endpoint name
+    private static class StubEndpoint implements McpClientPool.Endpoint {
+        private final String name;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger listings = new AtomicInteger();
+        private final AtomicInteger healthChecks = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile CountDownLatch gate;
+        private volatile long delayMillis;
+        private volatile CountDownLatch healthGate;
+
+        private StubEndpoint(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public ToolProvider tools() {
+            return (ToolProviderRequest request) -> {
+                listings.incrementAndGet();
+                ToolSpecification spec = ToolSpecification.builder().name("read_file").description("Reads a file").build();
+                ToolExecutor executor = (toolRequest, memoryId) -> {
+                    calls.incrementAndGet();
+                    CountDownLatch latch = gate;
+                    try {
+                        if (latch != null) {
+                            latch.await(5, TimeUnit.SECONDS);
+                        }
+                        TimeUnit.MILLISECONDS.sleep(delayMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if (failing) {
+                        throw new RuntimeException(name + " is down");
+                    }
+                    return name;
+                };
+                return ToolProviderResult.builder().add(spec, executor).build();
+            };
+        }
+
+        @Override
+        public void checkHealth() {
+            healthChecks.incrementAndGet();
+            CountDownLatch latch = healthGate;
+            if (latch != null) {
+                // ignores interrupts, like a client blocked in a socket read
+                while (latch.getCount() > 0) {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+            if (failing) {
+                throw new RuntimeException(name + " is down");
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.devbulchandani.backend.tools;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolExecutor;
+import dev.langchain4j.service.tool.ToolProvider;
+import dev.langchain4j.service.tool.ToolProviderResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelToolExecutorTest {
+    private ParallelToolExecutor executor;
+
+    interface Assistant {
+        String chat(String message);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void returnsResultsInRequestOrder() {
+        executor = new ParallelToolExecutor(4, Duration.ofSeconds(10));
+        SleepingTool tool = new SleepingTool();
+        ScriptedModel model = new ScriptedModel(executor, 300, 200, 100, 0);
+
+        assistant(model, tool).chat("go");
+
+        List<ToolExecutionResultMessage> results = model.toolResults();
+        assertEquals(List.of("call-0", "call-1", "call-2", "call-3"), results.stream().map(ToolExecutionResultMessage::id).toList());
+        assertEquals(List.of("slept 300", "slept 200", "slept 100", "slept 0"), results.stream().map(ToolExecutionResultMessage::text).toList());
+        // the shortest call finished first, so they really ran side by side
+        assertEquals("call-3", tool.finished.get(0));
+    }
+
+    @Test
+    void neverRunsMoreCallsThanTheCap() {
+        executor = new ParallelToolExecutor(3, Duration.ofSeconds(10));
+        SleepingTool tool = new SleepingTool();
+        ScriptedModel model = new ScriptedModel(executor, 100, 100, 100, 100, 100, 100, 100, 100);
+
+        assistant(model, tool).chat("go");
+
+        assertEquals(8, model.toolResults().size());
+        assertTrue(tool.maxRunning.get() <= 3, "ran " + tool.maxRunning.get() + " at once");
+        assertTrue(tool.maxRunning.get() > 1, "calls never overlapped");
+    }
+
+    @Test
+    void callsStillQueuedAtTheDeadlineAreNotStarted() {
+        executor = new ParallelToolExecutor(1, Duration.ofMillis(300));
+        SleepingTool tool = new SleepingTool();
+        ScriptedModel model = new ScriptedModel(executor, 600, 0, 0);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(3), () -> assistant(model, tool).chat("go"));
+
+        List<ToolExecutionResultMessage> results = model.toolResults();
+        assertEquals("slept 600", results.get(0).text());
+        assertTrue(results.get(1).text().contains("time budget"), results.get(1).text());
+        assertTrue(results.get(2).text().contains("time budget"), results.get(2).text());
+        assertEquals(List.of("call-0"), tool.finished);
+    }
+
+    @Test
+    void aFailedSubmissionClosesTheTurn() {
+        executor = new ParallelToolExecutor(2, Duration.ofSeconds(10));
+        ChatRequest request = ChatRequest.builder().messages(UserMessage.from("go")).build();
+        ChatResponse response = ChatResponse.builder()
+                .aiMessage(AiMessage.from(new ScriptedModel(executor, 0, 0, 0).calls))
+                .build();
+        executor.onResponse(new ChatModelResponseContext(response, request, ModelProvider.OTHER, new HashMap<>()));
+        assertTrue(ParallelToolExecutor.hasSubmittingTurn());
+
+        executor.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+        assertFalse(ParallelToolExecutor.hasSubmittingTurn());
+    }
+
+    private Assistant assistant(ChatModel model, SleepingTool tool) {
+        ToolSpecification spec = ToolSpecification.builder().name("sleep").description("Sleeps").build();
+        ToolProvider provider = request -> ToolProviderResult.builder().add(spec, tool).build();
+        return AiServices.builder(Assistant.class)
+                .chatModel(model)
+                .toolProvider(executor.withTurnDeadline(provider))
+                .executeToolsConcurrently(executor)
+                .build();
+    }
+
+    /**
+     * Sleeps for the number of milliseconds in the call arguments and tracks how many calls
+     * overlap.
+     */
+    private static final class SleepingTool implements ToolExecutor {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final List<String> finished = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String execute(ToolExecutionRequest request, Object memoryId) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(Long.parseLong(request.arguments()));
+                finished.add(request.id());
+                return "slept " + request.arguments();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Asks for one sleep call per given duration, then answers once the results are in.
+     */
+    private static final class ScriptedModel implements ChatModel {
+        private final ParallelToolExecutor listener;
+        private final List<ToolExecutionRequest> calls = new ArrayList<>();
+        private final List<ChatRequest> requests = new CopyOnWriteArrayList<>();
+
+        private ScriptedModel(ParallelToolExecutor listener, long... sleeps) {
+            this.listener = listener;
+            for (int i = 0; i < sleeps.length; i++) {
+                calls.add(ToolExecutionRequest.builder()
+                        .id("call-" + i)
+                        .name("sleep")
+                        .arguments(String.valueOf(sleeps[i]))
+                        .build());
+            }
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            requests.add(request);
+            AiMessage answer = requests.size() == 1 ? AiMessage.from(calls) : AiMessage.from("done");
+            return ChatResponse.builder().aiMessage(answer).build();
+        }
+
+        @Override
+        public List<ChatModelListener> listeners() {
+            return List.of(listener);
+        }
+
+        private List<ToolExecutionResultMessage> toolResults() {
+            return requests.get(requests.size() - 1).messages().stream()
+                    .filter(ToolExecutionResultMessage.class::isInstance)
+                    .map(ToolExecutionResultMessage.class::cast)
+                    .toList();
+        }
+    }
+}
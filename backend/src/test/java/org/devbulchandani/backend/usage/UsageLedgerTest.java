@@ -0,0 +1,181 @@
+package org.devbulchandani.backend.usage;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsageLedgerTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    private final List<List<UsageLedger.UsageRow>> flushed = new ArrayList<>();
+    private final MutableClock clock = new MutableClock(DAY.atTime(23, 59).toInstant(ZoneOffset.UTC));
+    private boolean storeDown;
+    private final UsageLedger ledger = new UsageLedger(new UsageStore(new DriverManagerDataSource()) {
+        @Override
+        public void upsert(List<UsageLedger.UsageRow> rows) {
+            if (storeDown) {
+                throw new RuntimeException("database unavailable");
+            }
+            flushed.add(rows);
+        }
+    }, clock);
+
+    @Test
+    void attributesResponsesToTheOpenContext() {
+        ChatModel model = new FakeChatModel(ledger, new TokenUsage(100, 20, 150));
+
+        try (UsageContext.Scope usage = UsageContext.open(7L, 3L, UsageContext.CHAT)) {
+            model.chat("first");
+            model.chat("second");
+        }
+        model.chat("outside any request");
+
+        List<UsageLedger.UsageRow> rows = ledger.drain();
+        UsageLedger.UsageRow chat = find(rows, UsageContext.CHAT);
+        assertEquals(new UsageLedger.UsageRow(DAY, 7, 3, UsageContext.CHAT, "fake-model", 2, 200, 40, 60), chat);
+        assertEquals(1, find(rows, "unattributed").calls());
+        assertTrue(ledger.drain().isEmpty());
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ledger.record(new UsageContext.Current(1, 1, UsageContext.VERIFY), "m", 2, 1, 3);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        UsageLedger.UsageRow row = ledger.drain().get(0);
+        assertEquals(80_000, row.calls());
+        assertEquals(160_000, row.inputTokens());
+        assertEquals(240_000, row.thinkingTokens());
+    }
+
+    @Test
+    void failedFlushKeepsTotalsForTheNextOne() {
+        ledger.record(new UsageContext.Current(1, 0, UsageContext.CURRICULUM), "m", 10, 5, 0);
+
+        storeDown = true;
+        ledger.flush();
+        assertTrue(flushed.isEmpty());
+
+        storeDown = false;
+        ledger.record(new UsageContext.Current(1, 0, UsageContext.CURRICULUM), "m", 10, 5, 0);
+        ledger.flush();
+
+        assertEquals(List.of(List.of(new UsageLedger.UsageRow(DAY, 1, 0, UsageContext.CURRICULUM, "m", 2, 20, 10, 0))), flushed);
+    }
+
+    @Test
+    void incrementsDuringADrainLandInTheNextOne() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ledger.record(new UsageContext.Current(1, 1, UsageContext.VERIFY), "m", 1, 0, 0);
+                }
+            });
+        }
+        pool.shutdown();
+
+        long drained = 0;
+        boolean done = false;
+        while (!done) {
+            done = pool.awaitTermination(1, TimeUnit.MILLISECONDS);
+            drained += ledger.drain().stream().mapToLong(UsageLedger.UsageRow::calls).sum();
+        }
+
+        assertEquals(80_000, drained);
+    }
+
+    @Test
+    void bucketsCallsByTheDayTheyWereMade() {
+        ledger.record(new UsageContext.Current(1, 1, UsageContext.CHAT), "m", 10, 1, 0);
+        clock.now = clock.now.plusSeconds(120);
+        ledger.record(new UsageContext.Current(1, 1, UsageContext.CHAT), "m", 20, 2, 0);
+
+        // flushed after midnight, the first call still counts for the day before
+        ledger.flush();
+
+        assertEquals(1, flushed.size());
+        assertEquals(List.of(
+                new UsageLedger.UsageRow(DAY, 1, 1, UsageContext.CHAT, "m", 1, 10, 1, 0),
+                new UsageLedger.UsageRow(DAY.plusDays(1), 1, 1, UsageContext.CHAT, "m", 1, 20, 2, 0)
+        ), flushed.get(0).stream().sorted((a, b) -> a.day().compareTo(b.day())).toList());
+    }
+
+    private static UsageLedger.UsageRow find(List<UsageLedger.UsageRow> rows, String endpoint) {
+        return rows.stream().filter(r -> r.endpoint().equals(endpoint)).findFirst().orElseThrow();
+    }
+
+    private static class FakeChatModel implements ChatModel {
+        private final ChatModelListener listener;
+        private final TokenUsage usage;
+
+        private FakeChatModel(ChatModelListener listener, TokenUsage usage) {
+            this.listener = listener;
+            this.usage = usage;
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from("ok"))
+                    .modelName("fake-model")
+                    .tokenUsage(usage)
+                    .build();
+        }
+
+        @Override
+        public List<ChatModelListener> listeners() {
+            return List.of(listener);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}